@@ -49,6 +49,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the analyzed method, e.g., facts
+     * indexed by the variables of the method, can override this method.
+     * By default, this method delegates to {@link #newInitialFact()}.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -54,17 +55,28 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODOO - finish me
-        SetFact<Var> exitSetFact = new SetFact<Var>();
+        SetFact<Var> exitSetFact = new BitSetFact<Var>(cfg.getIR().getVars());
         return exitSetFact;
         //return null;
     }
 
+    /**
+     * Live variables are kept in bit vectors indexed by the variables
+     * of the analyzed method, thus the initial facts can only be created
+     * by {@link #newInitialFact(CFG)}.
+     */
     @Override
     public SetFact<Var> newInitialFact() {
-        // TODOO - finish me
-        SetFact<Var> initSetFact = new SetFact<Var>();
-        return initSetFact;
-        //return null;
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Live variables are kept in bit vectors indexed by the variables
+     * of the analyzed method.
+     */
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<Var>(cfg.getIR().getVars());
     }
 
     @Override
@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Streams;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts whose elements come from a fixed
+ * universe of {@link Indexable} objects, e.g., the variables of a method.
+ * The elements are kept in a dense bit vector indexed by
+ * {@link Indexable#getIndex()}, thus union, intersection, comparison
+ * and copy are performed word-at-a-time.
+ * <p>
+ * Facts are compatible with each other only if they are created over
+ * the same universe (i.e., the same {@link List} instance).
+ * <p>
+ * The bit vector is copy-on-write: {@link #copy()} and {@link #set(SetFact)}
+ * share the bit vector of the source fact instead of copying it, and so do
+ * {@link #union(SetFact)} and {@link #intersect(SetFact)} when the result
+ * equals the other fact. A shared bit vector is copied before it is
+ * modified. Thus a fact that equals a neighbouring fact (e.g., the IN and
+ * OUT facts of most statements) costs no storage of its own.
+ * The backing set inherited from {@link SetFact} is always empty and
+ * never used by this class.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * The universe of elements, where each element {@code e}
+     * is located at position {@code e.getIndex()}.
+     */
+    private final List<E> universe;
+
+    private long[] words;
+
+    /**
+     * Whether {@link #words} may be shared with other facts.
+     */
+    private boolean shared;
+
+    /**
+     * Creates an empty fact for elements of given universe.
+     *
+     * @param universe all possible elements of this fact, each element
+     *                 {@code e} must be located at {@code e.getIndex()}.
+     */
+    public BitSetFact(List<E> universe) {
+        this(universe, new long[(universe.size() + 63) >>> ADDRESS_BITS_PER_WORD], false);
+    }
+
+    private BitSetFact(List<E> universe, long[] words, boolean shared) {
+        super(Collections.emptySet());
+        this.universe = universe;
+        this.words = words;
+        this.shared = shared;
+    }
+
+    /**
+     * @return the bit vector of this fact, which is copied first
+     * if it may be shared with other facts.
+     */
+    private long[] writableWords() {
+        if (shared) {
+            words = words.clone();
+            shared = false;
+        }
+        return words;
+    }
+
+    /**
+     * Shares the bit vector of given fact with this fact.
+     */
+    private void share(BitSetFact<E> that) {
+        words = that.words;
+        shared = true;
+        that.shared = true;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        int index = e.getIndex();
+        return (words[index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = e.getIndex();
+        int i = index >>> ADDRESS_BITS_PER_WORD;
+        long bit = 1L << index;
+        if ((words[i] & bit) != 0) {
+            return false;
+        }
+        writableWords()[i] |= bit;
+        return true;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int index = e.getIndex();
+        int i = index >>> ADDRESS_BITS_PER_WORD;
+        long bit = 1L << index;
+        if ((words[i] & bit) == 0) {
+            return false;
+        }
+        writableWords()[i] &= ~bit;
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                long bit = Long.lowestOneBit(word);
+                word ^= bit;
+                int index = (i << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(bit);
+                if (filter.test(universe.get(index))) {
+                    writableWords()[i] &= ~bit;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that) || that.universe != universe) {
+            return other.stream()
+                    .map(this::add)
+                    .reduce(false, Boolean::logicalOr);
+        }
+        // bits of this fact that are absent in that fact,
+        // and bits of that fact that are absent in this fact
+        long extra = 0, missing = 0;
+        for (int i = 0; i < words.length; ++i) {
+            extra |= words[i] & ~that.words[i];
+            missing |= that.words[i] & ~words[i];
+        }
+        if (missing == 0) {
+            return false;
+        }
+        if (extra == 0) {
+            // the union equals that fact
+            share(that);
+        } else {
+            long[] w = writableWords();
+            for (int i = 0; i < w.length; ++i) {
+                w[i] |= that.words[i];
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that) || that.universe != universe) {
+            return removeIf(e -> !other.contains(e));
+        }
+        long extra = 0, missing = 0;
+        for (int i = 0; i < words.length; ++i) {
+            extra |= words[i] & ~that.words[i];
+            missing |= that.words[i] & ~words[i];
+        }
+        if (extra == 0) {
+            return false;
+        }
+        if (missing == 0) {
+            // the intersection equals that fact
+            share(that);
+        } else {
+            long[] w = writableWords();
+            for (int i = 0; i < w.length; ++i) {
+                w[i] &= that.words[i];
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that && that.universe == universe) {
+            if (words != that.words) {
+                share(that);
+            }
+        } else {
+            clear();
+            union(other);
+        }
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        shared = true;
+        return new BitSetFact<>(universe, words, true);
+    }
+
+    @Override
+    public void clear() {
+        if (!isEmpty()) {
+            Arrays.fill(writableWords(), 0L);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        int[] indexes = new int[size()];
+        int n = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                indexes[n++] = (i << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return Arrays.stream(indexes).mapToObj(universe::get);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitSetFact<?> that)) {
+            return false;
+        }
+        return universe == that.universe &&
+                (words == that.words || Arrays.equals(words, that.words));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.Arrays;
+
+/**
+ * A {@link DataflowResult} for nodes that are {@link Indexable} with dense
+ * indexes, e.g., the {@link pascal.taie.ir.stmt.Stmt}s of a method.
+ * The facts are kept in arrays indexed by {@link Indexable#getIndex()},
+ * so that they are obtained without hashing the nodes.
+ * The arrays grow on demand when a node with a larger index is set.
+ * <p>
+ * The maps inherited from {@link DataflowResult} are never used by this class.
+ *
+ * @param <Node> type of nodes, which must implement {@link Indexable}
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    /**
+     * @param capacity expected number of nodes, i.e., the largest
+     *                 index of the nodes plus one.
+     */
+    public IndexedDataflowResult(int capacity) {
+        inFacts = new Object[capacity];
+        outFacts = new Object[capacity];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return get(inFacts, node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        inFacts = set(inFacts, node, fact);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return get(outFacts, node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        outFacts = set(outFacts, node, fact);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact get(Object[] facts, Node node) {
+        int index = ((Indexable) node).getIndex();
+        return index < facts.length ? (Fact) facts[index] : null;
+    }
+
+    private Object[] set(Object[] facts, Node node, Fact fact) {
+        int index = ((Indexable) node).getIndex();
+        if (index >= facts.length) {
+            facts = Arrays.copyOf(facts, Math.max(index + 1, facts.length * 2));
+        }
+        facts[index] = fact;
+        return facts;
+    }
+}
@@ -24,8 +24,10 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
 import java.util.Queue;
 
 /**
@@ -48,7 +50,7 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new IterativeSolver<>(analysis);
+        return new WorkListSolver<>(analysis);
     }
 
     /**
@@ -63,13 +65,27 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. If the nodes are
+     * {@link Indexable} (e.g., stmts), the facts are indexed by the nodes.
+     */
+    private static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Indexable entry &&
+                cfg.getExit() instanceof Indexable exit) {
+            // the entry and exit of a CFG of stmts take the largest indexes
+            return new IndexedDataflowResult<>(
+                    Math.max(entry.getIndex(), exit.getIndex()) + 1);
+        }
+        return new DataflowResult<>();
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -79,7 +95,15 @@ public abstract class Solver<Node, Fact> {
     }
 
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        for (Node node : cfg) {
+            if (node == cfg.getEntry() || node == cfg.getExit()) {
+                continue;
+            }
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
+        }
+        result.setInFact(cfg.getExit(), analysis.newInitialFact(cfg));
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
@@ -87,10 +111,10 @@ public abstract class Solver<Node, Fact> {
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
         for(Node node : cfg) {
             if(node == cfg.getExit() || node == cfg.getEntry()) continue;
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
-        result.setOutFact(cfg.getEntry(), analysis.newInitialFact());
+        result.setOutFact(cfg.getEntry(), analysis.newInitialFact(cfg));
     }
 
     /**
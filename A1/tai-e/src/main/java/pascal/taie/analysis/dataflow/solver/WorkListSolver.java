@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
+
+class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        NodeWorkList<Node> workList = new NodeWorkList<>(CFGNodeOrder.of(cfg), true);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.add(succ);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        NodeWorkList<Node> workList = new NodeWorkList<>(CFGNodeOrder.of(cfg), false);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.add(pred);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Depth-first postorder of the nodes of a CFG.
+ * <p>
+ * The depth-first search starts from the entry of the CFG, and then from
+ * the remaining nodes (which are unreachable from the entry) in the order
+ * of {@link CFG#getNodes()}, so that every node receives a number.
+ * Each node is numbered by its position in the postorder, and the
+ * reverse postorder number of a node is derived from it.
+ * <p>
+ * The order of a CFG is computed once and cached in the IR of the CFG,
+ * use {@link #of(CFG)} to obtain it.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class CFGNodeOrder<N> {
+
+    /**
+     * Key of the order in the result holder of {@link pascal.taie.ir.IR}.
+     */
+    private static final String KEY = "cfg-node-order";
+
+    /**
+     * Map from node to its postorder number.
+     */
+    private final Map<N, Integer> postorder;
+
+    /**
+     * The nodes sorted in postorder.
+     */
+    private final List<N> nodes;
+
+    private CFGNodeOrder(CFG<N> cfg) {
+        int size = cfg.getNumberOfNodes();
+        postorder = Maps.newMap(size);
+        nodes = new ArrayList<>(size);
+        Map<N, Boolean> visited = Maps.newMap(size);
+        visit(cfg, cfg.getEntry(), visited);
+        for (N node : cfg) {
+            visit(cfg, node, visited);
+        }
+    }
+
+    /**
+     * @return the node order of given CFG.
+     */
+    public static <N> CFGNodeOrder<N> of(CFG<N> cfg) {
+        return cfg.getIR().getResult(KEY, () -> new CFGNodeOrder<>(cfg));
+    }
+
+    /**
+     * Iterative depth-first search, so that long methods
+     * do not overflow the stack.
+     */
+    private void visit(CFG<N> cfg, N root, Map<N, Boolean> visited) {
+        if (visited.putIfAbsent(root, true) != null) {
+            return;
+        }
+        Deque<N> stack = new ArrayDeque<>();
+        Deque<Iterator<N>> succs = new ArrayDeque<>();
+        stack.push(root);
+        succs.push(cfg.getSuccsOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<N> it = succs.peek();
+            if (it.hasNext()) {
+                N succ = it.next();
+                if (visited.putIfAbsent(succ, true) == null) {
+                    stack.push(succ);
+                    succs.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                N node = stack.pop();
+                succs.pop();
+                postorder.put(node, nodes.size());
+                nodes.add(node);
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes in this order.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the postorder number of given node.
+     */
+    public int getPostorder(N node) {
+        return postorder.get(node);
+    }
+
+    /**
+     * @return the reverse postorder number of given node.
+     */
+    public int getReversePostorder(N node) {
+        return nodes.size() - 1 - postorder.get(node);
+    }
+
+    /**
+     * @return the node with given postorder number.
+     */
+    public N getNodeOfPostorder(int number) {
+        return nodes.get(number);
+    }
+
+    /**
+     * @return the node with given reverse postorder number.
+     */
+    public N getNodeOfReversePostorder(int number) {
+        return nodes.get(nodes.size() - 1 - number);
+    }
+}
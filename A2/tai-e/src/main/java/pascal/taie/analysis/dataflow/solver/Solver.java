@@ -24,7 +24,9 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -61,13 +63,27 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. If the nodes are
+     * {@link Indexable} (e.g., stmts), the facts are indexed by the nodes.
+     */
+    private static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Indexable entry &&
+                cfg.getExit() instanceof Indexable exit) {
+            // the entry and exit of a CFG of stmts take the largest indexes
+            return new IndexedDataflowResult<>(
+                    Math.max(entry.getIndex(), exit.getIndex()) + 1);
+        }
+        return new DataflowResult<>();
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -93,7 +109,18 @@ public abstract class Solver<Node, Fact> {
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        for(Node node : cfg) {
+            if(cfg.isExit(node)) {
+                result.setInFact(node, analysis.newBoundaryFact(cfg));
+            }
+            else if(cfg.isEntry(node)) {
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+            else {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+        }
     }
 
     /**
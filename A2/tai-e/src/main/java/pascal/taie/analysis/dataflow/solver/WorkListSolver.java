@@ -22,14 +22,10 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
-import pascal.taie.analysis.Analysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
-
-import java.util.LinkedList;
-import java.util.Queue;
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -39,50 +35,37 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // done - finish me
-        initializeForward(cfg, result);
-
-        // The following initialisation code can be replaced by
-        //Queue<Node> workList = new LinkedList<>(cfg.getNodes());
-        Queue<Node> workList = new LinkedList<>();
-        for(Node n : cfg.getNodes() ) {
-            initWorkListDFS(cfg, cfg.getEntry(), workList);
-        }
-
-        while(!workList.isEmpty()) {
-            Node currentNode = workList.remove();
-            // if(cfg.isEntry(currentNode)) continue;
-            for(Node n : cfg.getPredsOf(currentNode)) {
-                analysis.meetInto(result.getOutFact(n), result.getInFact(currentNode));
+        NodeWorkList<Node> workList = new NodeWorkList<>(CFGNodeOrder.of(cfg), true);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
             }
-            if( analysis.transferNode(
-                    currentNode,
-                    result.getInFact(currentNode),
-                    result.getOutFact(currentNode) ) ) {
-                for(Node n : cfg.getSuccsOf(currentNode) ) {
-                    if(!workList.contains(n)) {
-                        workList.add(n);
-                    }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.add(succ);
                 }
             }
         }
     }
 
-    private void initWorkListDFS(CFG<Node> cfg, Node curNode, Queue<Node> workList) {
-        if(workList.contains(curNode) ) {
-            return;
-        }
-
-        workList.add(curNode);
-        for(Node s : cfg.getSuccsOf(curNode) ) {
-            if(!workList.contains(s) ) {
-                initWorkListDFS(cfg, s, workList);
-            }
-        }
-    }
-
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        NodeWorkList<Node> workList = new NodeWorkList<>(CFGNodeOrder.of(cfg), false);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.add(pred);
+                }
+            }
+        }
     }
 }
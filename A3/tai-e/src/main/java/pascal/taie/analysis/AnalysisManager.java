@@ -0,0 +1,303 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.ProductAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * Method analyses are executed by {@link MethodAnalysisDriver}, sequentially
+ * unless their option {@code parallelism} is given.
+ * <p>
+ * Consecutive forward data-flow analyses whose option {@code fuse} is
+ * true, and which choose the same solver, are solved together in one
+ * fixpoint by a {@link ProductAnalysis},
+ * and their results are stored under their own IDs as usual, e.g.,
+ * <pre>
+ *   - id: constprop
+ *     options:
+ *       fuse: true
+ * </pre>
+ * Only analyses which do not depend on the results of each other
+ * should be fused.
+ * <p>
+ * If the plan consists of method analyses followed by a
+ * {@link ResultProcessor} whose option {@code stream} is true, the methods
+ * are streamed through the analyses and the processor by a
+ * {@link MethodPipeline}, which drops the IR of each method together
+ * with its results after processing them.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    private static final String STREAM = "stream";
+
+    private static final String IN_FLIGHT = "in-flight";
+
+    /**
+     * Scope of the class analyses, computed on demand.
+     */
+    private List<JClass> classScope;
+
+    /**
+     * Scope of the method analyses, computed on demand.
+     */
+    private List<JMethod> methodScope;
+
+    /**
+     * String representation of the analysis plan, which keys
+     * the cached results of method analyses.
+     */
+    private String plan;
+
+    /**
+     * Executes the analyses in the order of given configurations.
+     */
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        plan = analysisConfigs.stream()
+                // the result processor does not affect the results
+                .filter(config -> !config.getId().equals(ResultProcessor.ID))
+                .map(AnalysisConfig::toDetailedString)
+                .collect(Collectors.joining("\n"));
+        List<Analysis> analyses = newAnalyses(analysisConfigs);
+        if (isStreaming(analyses)) {
+            String ids = analyses.stream()
+                    .map(Analysis::getId)
+                    .collect(Collectors.joining(","));
+            Timer.runAndCount(() -> stream(analyses), "stream[" + ids + "]");
+        } else {
+            analyses.forEach(analysis -> Timer.runAndCount(
+                    () -> runAnalysis(analysis), analysis.getId()));
+        }
+    }
+
+    /**
+     * Creates the analyses for given configurations, and fuses the
+     * consecutive fusible analyses.
+     */
+    private static List<Analysis> newAnalyses(List<AnalysisConfig> analysisConfigs) {
+        List<Analysis> analyses = new ArrayList<>();
+        Analysis next = null;
+        for (int i = 0; i < analysisConfigs.size(); ++i) {
+            Analysis analysis = next != null ? next :
+                    newAnalysis(analysisConfigs.get(i));
+            next = null;
+            if (isFusible(analysis)) {
+                List<AbstractDataflowAnalysis<?, ?>> fused = new ArrayList<>();
+                fused.add((AbstractDataflowAnalysis<?, ?>) analysis);
+                while (i + 1 < analysisConfigs.size()) {
+                    next = newAnalysis(analysisConfigs.get(i + 1));
+                    if (!isFusible(next) || !isSolvedAlike(fused.get(0), next)) {
+                        break;
+                    }
+                    fused.add((AbstractDataflowAnalysis<?, ?>) next);
+                    next = null;
+                    ++i;
+                }
+                if (fused.size() > 1) {
+                    analysis = fuse(fused);
+                }
+            }
+            analyses.add(analysis);
+        }
+        return analyses;
+    }
+
+    private static Analysis newAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            return (Analysis) ctor.newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    /**
+     * @return true if given analysis can be solved together with
+     * the adjacent fusible analyses, otherwise false.
+     */
+    private static boolean isFusible(Analysis analysis) {
+        return analysis instanceof AbstractDataflowAnalysis<?, ?> dfa &&
+                dfa.isForward() &&
+                dfa.getOptions().getBooleanOrDefault("fuse", false);
+    }
+
+    /**
+     * @return true if given analyses choose the same solver, otherwise false.
+     * The product of fused analyses is solved by one solver, thus
+     * the analyses that choose different solvers are not fused.
+     */
+    private static boolean isSolvedAlike(Analysis analysis1, Analysis analysis2) {
+        return Objects.equals(analysis1.getOptions().getString("solver"),
+                analysis2.getOptions().getString("solver"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Node> ProductAnalysis<Node> fuse(
+            List<AbstractDataflowAnalysis<?, ?>> analyses) {
+        logger.info("Fusing {} into one fixpoint", analyses.stream()
+                .map(Analysis::getId)
+                .toList());
+        return new ProductAnalysis<>(
+                (List<AbstractDataflowAnalysis<Node, ?>>) (List<?>) analyses);
+    }
+
+    private void runAnalysis(Analysis analysis) {
+        if (analysis instanceof ProgramAnalysis pa) {
+            runProgramAnalysis(pa);
+        } else if (analysis instanceof ClassAnalysis ca) {
+            runClassAnalysis(ca);
+        } else if (analysis instanceof MethodAnalysis ma) {
+            runMethodAnalysis(ma);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    /**
+     * @return true if given analyses end with a {@link ResultProcessor}
+     * whose option {@code stream} is true, and all the other analyses
+     * are method analyses, otherwise false.
+     */
+    private static boolean isStreaming(List<Analysis> analyses) {
+        if (analyses.isEmpty() ||
+                !(analyses.get(analyses.size() - 1) instanceof ResultProcessor processor) ||
+                !processor.getOptions().getBooleanOrDefault(STREAM, false)) {
+            return false;
+        }
+        List<Analysis> others = analyses.subList(0, analyses.size() - 1);
+        if (others.stream().allMatch(a -> a instanceof MethodAnalysis)) {
+            return true;
+        }
+        logger.warn("Cannot stream the results of non-method analyses {}",
+                others.stream()
+                        .filter(a -> !(a instanceof MethodAnalysis))
+                        .map(Analysis::getId)
+                        .toList());
+        return false;
+    }
+
+    private void stream(List<Analysis> analyses) {
+        ResultProcessor processor = (ResultProcessor) analyses.get(analyses.size() - 1);
+        List<MethodAnalysisDriver> drivers = analyses
+                .subList(0, analyses.size() - 1)
+                .stream()
+                .map(a -> new MethodAnalysisDriver((MethodAnalysis) a, plan))
+                .toList();
+        Object option = processor.getOptions().get(IN_FLIGHT);
+        int inFlight = option instanceof Number n && n.intValue() > 0 ?
+                n.intValue() : Runtime.getRuntime().availableProcessors();
+        List<JMethod> methods = getMethodScope()
+                .stream()
+                .sorted(ResultProcessor.STREAM_ORDER)
+                .toList();
+        Object result = new MethodPipeline(drivers, processor, inFlight)
+                .run(methods);
+        World.get().storeResult(processor.getId(), result);
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            classScope = switch (World.get().getOptions().getScope()) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses().toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses().toList();
+                default -> throw unexpectedScope();
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), World.get().getOptions().getScope());
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        new MethodAnalysisDriver(analysis, plan).run(getMethodScope());
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            methodScope = switch (World.get().getOptions().getScope()) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw unexpectedScope();
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), World.get().getOptions().getScope());
+        }
+        return methodScope;
+    }
+
+    /**
+     * Scope "reachable" relies on the call graph, which is not
+     * available in this project.
+     */
+    private static ConfigException unexpectedScope() {
+        return new ConfigException("Unexpected scope option: " +
+                World.get().getOptions().getScope());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs a {@link MethodAnalysis} on the IRs of a list of methods,
+ * and stores the (non-null) result of each method in its IR.
+ * <p>
+ * By default, the methods are analyzed sequentially on the calling thread.
+ * If analysis option {@code parallelism} is greater than 1, they are
+ * analyzed on a dedicated {@link ForkJoinPool} with that parallelism,
+ * and if it is 0, with all available processors, e.g.,
+ * <pre>
+ *   - id: deadcode
+ *     options:
+ *       parallelism: 16
+ * </pre>
+ * Only analyses which are thread-safe should be run in parallel, i.e.,
+ * {@link MethodAnalysis#analyze(IR)} may be called on different methods
+ * concurrently, and it should only modify the given IR and the states
+ * which are confined to the call. It should also not rely on the results
+ * of the same analysis on other methods, which may not have been stored.
+ * <p>
+ * If the analysis supports it (see {@link ResultCodec}) and option
+ * {@code cache-dir} is given, the results are cached on disk across runs
+ * (see {@link MethodResultCache}), and only the methods which have been
+ * changed since the results were cached are analyzed, e.g.,
+ * <pre>
+ *   - id: constprop
+ *     options:
+ *       cache-dir: output/cache
+ *       cache-max-size: 64 # MB
+ *       cache-max-age: 30 # days
+ * </pre>
+ * The results are not cached if the analysis is profiled (option
+ * {@code profile}), as the profiles are recorded by the analysis
+ * of each method, which is skipped for the cached results.
+ */
+class MethodAnalysisDriver {
+
+    private static final Logger logger = LogManager.getLogger(MethodAnalysisDriver.class);
+
+    private static final String PARALLELISM = "parallelism";
+
+    private static final String CACHE_DIR = "cache-dir";
+
+    private static final String CACHE_MAX_SIZE = "cache-max-size";
+
+    private static final String CACHE_MAX_AGE = "cache-max-age";
+
+    private static final String PROFILE = "profile";
+
+    private static final long DEFAULT_CACHE_MAX_SIZE = 64;
+
+    private static final long DEFAULT_CACHE_MAX_AGE = 30;
+
+    private final MethodAnalysis analysis;
+
+    private final int parallelism;
+
+    /**
+     * Cache of the results, or null if the results are not cached.
+     */
+    private final MethodResultCache<Object> cache;
+
+    /**
+     * @param plan string representation of the analysis plan
+     */
+    MethodAnalysisDriver(MethodAnalysis analysis, String plan) {
+        this.analysis = analysis;
+        Object option = analysis.getOptions().get(PARALLELISM);
+        int p = option instanceof Number n ? n.intValue() : 1;
+        this.parallelism = p == 0 ? Runtime.getRuntime().availableProcessors()
+                : Math.max(p, 1);
+        this.cache = makeCache(analysis, plan);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MethodResultCache<Object> makeCache(
+            MethodAnalysis analysis, String plan) {
+        String dir = analysis.getOptions().getString(CACHE_DIR);
+        if (dir == null) {
+            return null;
+        }
+        if (!(analysis instanceof ResultCodec<?> codec)) {
+            logger.warn("{} does not support result cache", analysis.getId());
+            return null;
+        }
+        if (analysis.getOptions().getBooleanOrDefault(PROFILE, false)) {
+            logger.warn("{} is profiled, its results are not cached",
+                    analysis.getId());
+            return null;
+        }
+        return new MethodResultCache<>(Path.of(dir), analysis.getId(),
+                (ResultCodec<Object>) codec, plan,
+                getLong(analysis, CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE) << 20,
+                getLong(analysis, CACHE_MAX_AGE, DEFAULT_CACHE_MAX_AGE));
+    }
+
+    private static long getLong(MethodAnalysis analysis, String key, long defaultValue) {
+        Object option = analysis.getOptions().get(key);
+        return option instanceof Number n ? n.longValue() : defaultValue;
+    }
+
+    void run(List<JMethod> methods) {
+        logger.debug("Running {} on {} methods with parallelism {}",
+                analysis.getId(), methods.size(), parallelism);
+        if (parallelism == 1) {
+            methods.forEach(m -> analyze(m.getIR()));
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<?>> tasks = methods.stream()
+                        .<ForkJoinTask<?>>map(m -> pool.submit(() -> analyze(m.getIR())))
+                        .toList();
+                // rethrows the exception of the first failed method
+                tasks.forEach(ForkJoinTask::join);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        flushCache();
+    }
+
+    /**
+     * Analyzes the method of given IR on the calling thread.
+     */
+    void analyze(IR ir) {
+        Object result = cache != null ?
+                cache.get(ir, () -> analysis.analyze(ir)) :
+                analysis.analyze(ir);
+        if (result != null) {
+            ir.storeResult(analysis.getId(), result);
+        }
+    }
+
+    /**
+     * Writes the cached results back to disk, if the results are cached.
+     */
+    void flushCache() {
+        if (cache != null) {
+            cache.flush();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams methods through a list of method analyses and a
+ * {@link ResultProcessor}: the IR of each method is built, analyzed by
+ * all the analyses in order, then its results are processed, and then
+ * the IR is dropped together with all the results cached in it
+ * (e.g., CFG, data-flow facts).
+ * <p>
+ * The IRs are built by the {@link pascal.taie.ir.IRBuilder} of the world
+ * instead of {@link JMethod#getIR()}, which would keep each IR in its
+ * method for the rest of the run. Thus the analyses must obtain the IR
+ * from what they are given (e.g., {@link
+ * pascal.taie.analysis.graph.cfg.CFG#getIR()}) instead of the methods.
+ * If the IRs have been pre-built (option {@code pre-build-ir}), they are
+ * kept by the methods anyway, and only their results are dropped.
+ * <p>
+ * At most {@code inFlight} methods are analyzed or waiting to be processed
+ * at the same time. When the limit is reached, no more methods are
+ * admitted until the oldest one is processed (back-pressure), thus
+ * the peak memory depends on the largest methods in flight instead of
+ * the whole program. The results are processed on the calling thread in
+ * the order of the methods (see {@link ResultProcessor#STREAM_ORDER}).
+ * <p>
+ * The analyses are run with the parallelism of the pipeline,
+ * and their own option {@code parallelism} is ignored.
+ */
+class MethodPipeline {
+
+    private static final Logger logger = LogManager.getLogger(MethodPipeline.class);
+
+    private final List<MethodAnalysisDriver> drivers;
+
+    private final ResultProcessor processor;
+
+    private final int inFlight;
+
+    MethodPipeline(List<MethodAnalysisDriver> drivers,
+                   ResultProcessor processor, int inFlight) {
+        this.drivers = drivers;
+        this.processor = processor;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * Streams given methods through the pipeline.
+     *
+     * @return the result of the result processor.
+     */
+    Object run(List<JMethod> methods) {
+        logger.info("Streaming {} methods with {} in flight",
+                methods.size(), inFlight);
+        processor.start();
+        if (inFlight == 1) {
+            methods.forEach(m -> emit(analyze(m)));
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(inFlight);
+            Deque<Future<IR>> pending = new ArrayDeque<>(inFlight);
+            try {
+                for (JMethod method : methods) {
+                    if (pending.size() == inFlight) {
+                        emit(await(pending.poll()));
+                    }
+                    pending.add(pool.submit(() -> analyze(method)));
+                    // emit the finished methods eagerly
+                    while (!pending.isEmpty() && pending.peek().isDone()) {
+                        emit(await(pending.poll()));
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    emit(await(pending.poll()));
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        drivers.forEach(MethodAnalysisDriver::flushCache);
+        return processor.finish();
+    }
+
+    /**
+     * Builds the IR of given method and analyzes it.
+     *
+     * @return the analyzed IR.
+     */
+    private IR analyze(JMethod method) {
+        IR ir = World.get().getOptions().isPreBuildIR() ?
+                method.getIR() : World.get().getIRBuilder().buildIR(method);
+        drivers.forEach(driver -> driver.analyze(ir));
+        return ir;
+    }
+
+    private void emit(IR ir) {
+        processor.process(ir);
+        ir.clearAll();
+    }
+
+    private static IR await(Future<IR> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new AnalysisException("Failed to analyze method", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Interrupted while streaming methods", e);
+        }
+    }
+}
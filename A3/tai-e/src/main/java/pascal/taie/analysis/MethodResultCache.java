@@ -0,0 +1,376 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache of the results of a method analysis, which is stored in
+ * one file per analysis, i.e., {@code <cache-dir>/<analysis-id>.cache}.
+ * <p>
+ * The results are keyed by the fingerprint of the analyzed method,
+ * i.e., a hash of its signature, variables, stmts and exception entries,
+ * together with the analysis plan (the configurations of all analyses).
+ * Thus, the result of a method is reused as long as neither the method
+ * body nor the analysis plan is changed.
+ * <p>
+ * The cache file is memory-mapped when the cache is opened, and the results
+ * are decoded (by {@link ResultCodec}) from the mapped file on demand.
+ * When the cache is flushed, the file is rewritten with the old entries and
+ * the new results; the entries which have not been used for
+ * {@code maxAge} days are evicted, and so are the least recently used
+ * entries until the file is no larger than {@code maxSize} bytes.
+ * The old file is unmapped before it is replaced (which is not allowed
+ * for a mapped file on some platforms, e.g., Windows), and the new file
+ * is mapped afterwards.
+ * <p>
+ * The file consists of a header (magic number and version), followed by
+ * entries of the form:
+ * <pre>
+ *   fingerprint (16 bytes) | last used time (8 bytes) | length (4 bytes)
+ *   | CRC-32 of data (4 bytes) | data
+ * </pre>
+ * A truncated file is read up to its last complete entry, and an entry
+ * whose data does not match its checksum (or cannot be decoded) is
+ * dropped, and the result of its method is computed again.
+ *
+ * @param <R> type of the analysis results
+ */
+class MethodResultCache<R> {
+
+    private static final Logger logger = LogManager.getLogger(MethodResultCache.class);
+
+    private static final int MAGIC = 0x54414943; // "TAIC"
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int ENTRY_HEADER_SIZE = 16 + 8 + 4 + 4;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final Path file;
+
+    private final ResultCodec<R> codec;
+
+    private final String plan;
+
+    private final long maxSize;
+
+    private final long maxAge;
+
+    /**
+     * Time of this run, which is recorded as the last used time
+     * of the entries used by this run.
+     */
+    private final long now;
+
+    /**
+     * The mapped cache file, or null if the file does not exist.
+     */
+    private MappedByteBuffer mapped;
+
+    /**
+     * Entries of the cache, including the ones in the file and
+     * the ones added by this run.
+     */
+    private final Map<Fingerprint, Entry> entries = Maps.newConcurrentMap();
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param dir     directory of the cache files
+     * @param id      ID of the analysis
+     * @param codec   codec of the analysis results
+     * @param plan    string representation of the analysis plan
+     * @param maxSize maximum size of the cache file in bytes
+     * @param maxAge  maximum number of days an unused entry is kept
+     */
+    MethodResultCache(Path dir, String id, ResultCodec<R> codec, String plan,
+                      long maxSize, long maxAge) {
+        this(dir, id, codec, plan, maxSize, maxAge, System.currentTimeMillis());
+    }
+
+    /**
+     * @param now time of this run in milliseconds
+     */
+    MethodResultCache(Path dir, String id, ResultCodec<R> codec, String plan,
+                      long maxSize, long maxAge, long now) {
+        this.now = now;
+        this.file = dir.resolve(id + ".cache");
+        this.codec = codec;
+        this.plan = plan;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        load();
+    }
+
+    private void load() {
+        entries.clear();
+        mapped = null;
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            logger.warn("Failed to read cache file {}, ignore it", file, e);
+            return;
+        }
+        if (mapped.limit() < HEADER_SIZE || mapped.getInt(0) != MAGIC
+                || mapped.getInt(4) != VERSION) {
+            logger.warn("Invalid cache file {}, ignore it", file);
+            mapped = null;
+            return;
+        }
+        int pos = HEADER_SIZE;
+        while (pos + ENTRY_HEADER_SIZE <= mapped.limit()) {
+            Fingerprint fingerprint = new Fingerprint(
+                    mapped.getLong(pos), mapped.getLong(pos + 8));
+            long lastUsed = mapped.getLong(pos + 16);
+            int length = mapped.getInt(pos + 24);
+            int checksum = mapped.getInt(pos + 28);
+            int offset = pos + ENTRY_HEADER_SIZE;
+            if (length < 0 || length > mapped.limit() - offset) {
+                logger.warn("Truncated cache file {}", file);
+                break;
+            }
+            entries.put(fingerprint,
+                    new Entry(offset, length, checksum, null, lastUsed));
+            pos = offset + length;
+        }
+    }
+
+    /**
+     * @return the cached result of given IR if it exists, otherwise
+     * computes the result by given supplier and adds it to this cache.
+     */
+    R get(IR ir, Supplier<R> analyzer) {
+        Fingerprint fingerprint = fingerprint(ir);
+        Entry entry = entries.get(fingerprint);
+        if (entry != null) {
+            R result = decode(ir, entry);
+            if (result != null) {
+                entries.put(fingerprint, entry.touch(now));
+                hits.incrementAndGet();
+                return result;
+            }
+            logger.warn("Corrupt cache entry of {} in {}, ignore it",
+                    ir.getMethod(), file);
+            entries.remove(fingerprint);
+        }
+        R result = analyzer.get();
+        if (result != null) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                codec.encode(ir, result, new DataOutputStream(bytes));
+                byte[] data = bytes.toByteArray();
+                entries.put(fingerprint, new Entry(
+                        -1, data.length, checksum(ByteBuffer.wrap(data)), data, now));
+            } catch (IOException e) {
+                logger.warn("Failed to encode the result of {}", ir.getMethod(), e);
+            }
+        }
+        misses.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * @return the result decoded from given entry, or null if the data
+     * of the entry is corrupt.
+     */
+    private R decode(IR ir, Entry entry) {
+        ByteBuffer data = entry.data != null ? ByteBuffer.wrap(entry.data) :
+                mapped.slice(entry.offset, entry.length);
+        if (checksum(data.duplicate()) != entry.checksum) {
+            return null;
+        }
+        try {
+            return codec.decode(ir, data);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the entries of this cache back to the cache file,
+     * evicting the stale and least recently used entries.
+     * This method must not be called concurrently with {@link #get}.
+     */
+    void flush() {
+        logger.info("Result cache {}: {} hits, {} misses",
+                file.getFileName(), hits, misses);
+        List<Map.Entry<Fingerprint, Entry>> kept = new ArrayList<>();
+        entries.entrySet().forEach(e -> {
+            if (now - e.getValue().lastUsed <= maxAge * MILLIS_PER_DAY) {
+                kept.add(e);
+            }
+        });
+        // most recently used first, so that the eviction by size
+        // drops the least recently used entries
+        kept.sort(Comparator.comparingLong(
+                (Map.Entry<Fingerprint, Entry> e) -> e.getValue().lastUsed).reversed());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                long size = HEADER_SIZE;
+                for (Map.Entry<Fingerprint, Entry> e : kept) {
+                    Entry entry = e.getValue();
+                    size += ENTRY_HEADER_SIZE + entry.length;
+                    if (size > maxSize) {
+                        break;
+                    }
+                    out.writeLong(e.getKey().high());
+                    out.writeLong(e.getKey().low());
+                    out.writeLong(entry.lastUsed);
+                    out.writeInt(entry.length);
+                    out.writeInt(entry.checksum);
+                    if (entry.data != null) {
+                        out.write(entry.data);
+                    } else {
+                        byte[] data = new byte[entry.length];
+                        mapped.get(entry.offset, data);
+                        out.write(data);
+                    }
+                }
+            }
+            if (mapped != null) {
+                unmap(mapped);
+                mapped = null;
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write cache file {}", file, e);
+        }
+        load();
+    }
+
+    /**
+     * Releases the mapping of given buffer, which must not be accessed
+     * afterwards. The JDK has no public API for this, so this method
+     * calls {@code sun.misc.Unsafe.invokeCleaner} if it is available;
+     * otherwise, the mapping is released when the buffer is collected.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)
+                    .invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Failed to unmap the cache file", e);
+        }
+    }
+
+    /**
+     * @return the fingerprint of given IR under the analysis plan.
+     */
+    private Fingerprint fingerprint(IR ir) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is always supported", e);
+        }
+        StringBuilder sb = new StringBuilder(plan).append('\n')
+                .append(ir.getMethod()).append('\n');
+        for (Var var : ir.getVars()) {
+            sb.append(var.getName()).append(':').append(var.getType()).append('\n');
+        }
+        for (Stmt stmt : ir) {
+            sb.append(IRPrinter.toString(stmt)).append('\n');
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            sb.append(entry.start().getIndex()).append(' ')
+                    .append(entry.end().getIndex()).append(' ')
+                    .append(entry.handler().getIndex()).append(' ')
+                    .append(entry.catchType()).append('\n');
+        }
+        ByteBuffer hash = ByteBuffer.wrap(
+                digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        return new Fingerprint(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * First 128 bits of a SHA-256 hash.
+     */
+    private record Fingerprint(long high, long low) {
+    }
+
+    /**
+     * Entry of the cache, whose data is either at {@code offset} of
+     * the mapped file, or in {@code data} (for new entries).
+     */
+    private record Entry(int offset, int length, int checksum,
+                         byte[] data, long lastUsed) {
+
+        private Entry touch(long time) {
+            return new Entry(offset, length, checksum, data, time);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.ir.IR;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the results of a {@link MethodAnalysis} to and from bytes,
+ * so that the results can be stored in the on-disk cache of
+ * {@link MethodAnalysisDriver}. Method analyses which support
+ * the cache implement this interface.
+ * <p>
+ * The bytes only need to be readable for the same IR, thus the results
+ * can refer to the stmts and variables of the IR by their indexes.
+ *
+ * @param <R> type of the analysis results
+ */
+public interface ResultCodec<R> {
+
+    /**
+     * Writes the result of given IR.
+     */
+    void encode(IR ir, R result, DataOutput out) throws IOException;
+
+    /**
+     * Reads a result of given IR which was written by
+     * {@link #encode(IR, Object, DataOutput)}, starting from
+     * the current position of the buffer.
+     */
+    R decode(IR ir, ByteBuffer in);
+}
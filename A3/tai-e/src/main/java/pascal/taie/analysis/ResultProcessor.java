@@ -22,9 +22,12 @@
 
 package pascal.taie.analysis;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverProfile;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
@@ -41,14 +44,15 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -59,6 +63,20 @@ import static pascal.taie.util.collection.CollectionUtils.getOne;
  * This class is designed mainly for testing purpose. Currently, it supports
  * input/output analysis results from/to file, and compare analysis results
  * with input results. This analysis should be placed after the other analyses.
+ * <p>
+ * In addition, for data-flow analyses whose solving is profiled
+ * (option {@code profile:true}), action {@code profile} outputs the
+ * {@link SolverProfile}s of all methods as a JSON report.
+ * <p>
+ * If option {@code stream} is true and the other analyses are all method
+ * analyses, the results are processed method by method as the methods
+ * are analyzed (see {@link MethodPipeline}), e.g.,
+ * <pre>
+ *   - id: process-result
+ *     options:
+ *       stream: true
+ *       in-flight: 8
+ * </pre>
  */
 public class ResultProcessor extends ProgramAnalysis {
 
@@ -74,6 +92,30 @@ public class ResultProcessor extends ProgramAnalysis {
 
     private Set<String> mismatches;
 
+    /**
+     * Number of the hottest nodes reported for each profiled method.
+     */
+    private static final int HOTTEST_NODES = 5;
+
+    private List<Map<String, Object>> profiles;
+
+    /**
+     * Order of the methods whose results are streamed, by their declaring
+     * classes and then signatures. Unlike the order of the methods whose
+     * results are processed after all analyses finish (by the lines of
+     * the methods), this order does not need the IRs of the methods,
+     * so that sorting the methods does not build their IRs ahead of
+     * streaming them.
+     */
+    static final Comparator<JMethod> STREAM_ORDER = Comparator
+            .comparing((JMethod m) -> m.getDeclaringClass().getName())
+            .thenComparing(JMethod::getSignature);
+
+    /**
+     * IDs of the intra-procedural analyses whose results are processed.
+     */
+    private List<String> intraAnalyses;
+
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
@@ -81,10 +123,25 @@ public class ResultProcessor extends ProgramAnalysis {
 
     @Override
     public Object analyze() {
+        start();
+        if (!intraAnalyses.isEmpty()) {
+            processResults(getMethods().map(JMethod::getIR), intraAnalyses);
+        }
+        return finish();
+    }
+
+    /**
+     * Initializes the processing, before any result is processed.
+     */
+    void start() {
         // initialization
         switch (action) {
             case "dump" -> setOutput();
             case "compare" -> readInputs();
+            case "profile" -> {
+                setOutput();
+                profiles = new ArrayList<>();
+            }
         }
         mismatches = new LinkedHashSet<>();
         // Classify given analysis IDs into two groups, one for inter-procedural
@@ -95,8 +152,28 @@ public class ResultProcessor extends ProgramAnalysis {
         Map<Boolean, List<String>> groups = ((List<String>) getOptions().get("analyses"))
                 .stream()
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
-        if (groups.containsKey(false)) {
-            processIntraResults(groups.get(false));
+        intraAnalyses = groups.getOrDefault(false, List.of());
+    }
+
+    /**
+     * Processes the intra-procedural results of the method of given IR.
+     * When streaming, the methods must be given in {@link #STREAM_ORDER}.
+     */
+    void process(IR ir) {
+        if (!intraAnalyses.isEmpty() &&
+                ir.getMethod().getDeclaringClass().isApplication()) {
+            processResults(Stream.of(ir), intraAnalyses);
+        }
+    }
+
+    /**
+     * Finishes the processing, after all results have been processed.
+     *
+     * @return the mismatches of the results.
+     */
+    Set<String> finish() {
+        if (profiles != null) {
+            dumpProfiles();
         }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
@@ -152,8 +229,8 @@ public class ResultProcessor extends ProgramAnalysis {
         }
     }
 
-    private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+    private static Stream<JMethod> getMethods() {
+        return World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
@@ -161,29 +238,27 @@ public class ResultProcessor extends ProgramAnalysis {
                 .filter(m -> !m.isAbstract() && !m.isNative())
                 .sorted(Comparator.comparing(m ->
                         m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
-    private void processResults(Stream<JMethod> methods, List<String> analyses,
-                                BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
+    private void processResults(Stream<IR> irs, List<String> analyses) {
+        irs.forEach(ir ->
                 analyses.forEach(id -> {
                     switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
+                        case "dump" -> dumpResult(ir, id);
+                        case "compare" -> compareResult(ir, id);
+                        case "profile" -> collectProfile(ir, id);
                     }
                 })
         );
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    private void dumpResult(IR ir, String id) {
+        JMethod method = ir.getMethod();
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
-        Object result = resultGetter.apply(method, id);
+        Object result = ir.getResult(id);
         if (result instanceof Set) {
             ((Set<?>) result).forEach(e -> out.println(toString(e)));
         } else if (result instanceof StmtResult<?> StmtResult) {
-            IR ir = method.getIR();
             ir.forEach(stmt -> out.println(toString(stmt, StmtResult)));
         } else {
             out.println(toString(result));
@@ -211,10 +286,47 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
-                               BiFunction<JMethod, String, ?> resultGetter) {
+    private void collectProfile(IR ir, String id) {
+        SolverProfile<?> profile = ir.getResult(SolverProfile.getKey(id));
+        if (profile == null) {
+            return;
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("method", ir.getMethod().getSignature());
+        entry.put("analysis", id);
+        entry.put("solver", profile.getSolver());
+        entry.put("nodes", profile.getNodes());
+        entry.put("transfers", profile.getTransfers());
+        entry.put("meets", profile.getMeets());
+        entry.put("maxWorkListSize", profile.getMaxWorkListSize());
+        entry.put("facts", profile.getFacts());
+        entry.put("factSize", profile.getFactSize());
+        entry.put("timeNanos", profile.getElapsedTime());
+        List<Map<String, Object>> hottestNodes = new ArrayList<>();
+        profile.getHottestNodes(HOTTEST_NODES).forEach(e -> {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("node", toString(e.getKey()));
+            node.put("transfers", e.getValue());
+            hottestNodes.add(node);
+        });
+        entry.put("hottestNodes", hottestNodes);
+        profiles.add(entry);
+    }
+
+    private void dumpProfiles() {
+        try {
+            out.println(new ObjectMapper()
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(profiles));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to dump solver profiles", e);
+        }
+    }
+
+    private void compareResult(IR ir, String id) {
+        JMethod method = ir.getMethod();
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
-        Object result = resultGetter.apply(method, id);
+        Object result = ir.getResult(id);
         if (result instanceof Set) {
             Set<String> given = ((Set<?>) result)
                     .stream()
@@ -234,7 +346,6 @@ public class ResultProcessor extends ProgramAnalysis {
             });
         } else if (result instanceof StmtResult<?> StmtResult) {
             Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
-            IR ir = method.getIR();
             ir.forEach(stmt -> {
                 String stmtStr = toString(stmt);
                 String given = toString(stmt, StmtResult);
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverProfile;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
@@ -35,19 +36,52 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
+    private final String solverKind;
+
     private final Solver<Node, Fact> solver;
 
+    /**
+     * If true, the solving of each method is profiled, and the profile
+     * is stored in the IR, see {@link SolverProfile#getKey(String)}.
+     */
+    private final boolean profile;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solverKind = getOptions().getString("solver");
+        solver = Solver.makeSolver(this, solverKind);
+        profile = getOptions().getBooleanOrDefault("profile", false);
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowAnalysis<Node, Fact> analysis = specialize(ir);
+        if (profile) {
+            SolverProfile<Node> solverProfile = new SolverProfile<>();
+            DataflowResult<Node, Fact> result = Solver
+                    .makeSolver(analysis, solverKind, solverProfile)
+                    .solve(cfg);
+            ir.storeResult(SolverProfile.getKey(getId()), solverProfile);
+            return result;
+        }
+        if (analysis != this) {
+            return Solver.makeSolver(analysis, solverKind).solve(cfg);
+        }
         return solver.solve(cfg);
     }
 
+    /**
+     * @return the analysis which solves the CFG of given IR. Analyses can
+     * override this method to return an analysis specialized for the IR,
+     * e.g., whose transfer function looks up the data computed once per IR
+     * (see {@link DelegatingDataflowAnalysis}). By default, this method
+     * returns this analysis.
+     */
+    protected DataflowAnalysis<Node, Fact> specialize(IR ir) {
+        return this;
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer, i.e.,
      * does not need to perform transfer for any edges.
@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 
+import java.util.List;
+
 /**
  * Template interface for defining data-flow analysis.
  *
@@ -49,6 +51,28 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the analyzed method, e.g., facts
+     * indexed by the variables of the method, can override this method.
+     * By default, this method delegates to {@link #newInitialFact()}.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
+    /**
+     * Resets given fact to the initial fact of given CFG, so that solvers
+     * can reuse it as a temporary fact instead of creating a new one.
+     * By default, this method returns a new initial fact.
+     *
+     * @return the reset fact, which is given fact itself if it can be
+     * reset in place.
+     */
+    default Fact resetFact(Fact fact, CFG<Node> cfg) {
+        return newInitialFact(cfg);
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -64,6 +88,20 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * Composes the transfer functions of given nodes, which form a basic
+     * block of given CFG, so that solvers can transfer the whole block at
+     * once. Analyses whose transfers can be composed, e.g., gen/kill
+     * analyses, can override this method.
+     *
+     * @return the composed transfer function of the block, or null if the
+     * transfers are not composed, in which case solvers transfer the nodes
+     * one by one. By default, this method returns null.
+     */
+    default BlockTransfer<Fact> composeTransfer(List<Node> block, CFG<Node> cfg) {
+        return null;
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
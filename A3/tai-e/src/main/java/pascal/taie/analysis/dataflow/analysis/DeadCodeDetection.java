@@ -23,11 +23,14 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.ResultCodec;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.ExecutableEdges;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.defuse.DefUseIndex;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
@@ -36,12 +39,18 @@ import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
-public class DeadCodeDetection extends MethodAnalysis {
+public class DeadCodeDetection extends MethodAnalysis
+        implements ResultCodec<Set<Stmt>> {
 
     public static final String ID = "deadcode";
 
@@ -49,24 +58,15 @@ public class DeadCodeDetection extends MethodAnalysis {
         super(config);
     }
 
-    private void getReachableStmts(Stmt cur, CFG<Stmt> cfg, LinkedList<Stmt> stmtVisited, LinkedList<Edge> badEdges) {
-        if(stmtVisited.contains(cur) ) {
-            return;
-        }
-        stmtVisited.add(cur);
-        for( Edge<?> e : cfg.getOutEdgesOf(cur) ) {
-            if( !badEdges.contains(e) ) {
-                getReachableStmts((Stmt) e.getTarget(), cfg, stmtVisited, badEdges);
-            }
-        }
-    }
     @Override
     public Set<Stmt> analyze(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
-        // obtain result of constant propagation
+        // obtain result of constant propagation, which is given by
+        // the analysis specified by option "constprop", i.e.,
+        // ConstantPropagation (default) or SparseConstantPropagation
         DataflowResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
+                ir.getResult(getOptions().getString("constprop"));
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
@@ -75,69 +75,149 @@ public class DeadCodeDetection extends MethodAnalysis {
         // done - finish me
         // Your task is to recognize dead code in ir and add it to deadCode
 
-        LinkedList<Edge> badEdges = new LinkedList<Edge>();
+        // The nodes of the CFG are indexed by Stmt.getIndex(): the statements
+        // of the IR take [0, n), and the entry and exit take n and n + 1
+        // (the nodes are not obtained from cfg.getNodes(), which sorts them)
+        int size = ir.getStmts().size() + 2;
+        Stmt[] nodes = new Stmt[size];
+        for (Stmt s : ir) {
+            nodes[s.getIndex()] = s;
+        }
+        nodes[cfg.getEntry().getIndex()] = cfg.getEntry();
+        nodes[cfg.getExit().getIndex()] = cfg.getExit();
+        BitSet reachable;
+        if (constants instanceof ExecutableEdges executable) {
+            // constant propagation has tracked the executable edges, i.e.,
+            // the unreachable branches and statements are found during
+            // its fixpoint, thus we need not evaluate the branches again
+            reachable = new BitSet(size);
+            for (int i = 0; i < size; ++i) {
+                if (executable.isExecutable(nodes[i])) {
+                    reachable.set(i);
+                }
+            }
+        } else {
+            reachable = getReachableStmts(cfg, nodes, constants);
+        }
+        for (int i = reachable.nextClearBit(0); i < size;
+             i = reachable.nextClearBit(i + 1)) {
+            if (!cfg.isExit(nodes[i])) { // Exit Node excluded
+                deadCode.add(nodes[i]);
+            }
+        }
+
+        // dead assignment - eliminate non-side-effective dead assignments,
+        // the live variables are kept in bit sets, thus each lookup is O(1)
+        DefUseIndex defUse = DefUseIndex.of(ir);
+        for (int i = reachable.nextSetBit(0); i >= 0;
+             i = reachable.nextSetBit(i + 1)) {
+            if (nodes[i] instanceof AssignStmt<?, ?> assign) {
+                Var v = defUse.getDef(assign);
+                if (v != null
+                        && !liveVars.getOutFact(assign).contains(v)
+                        && hasNoSideEffect(assign.getRValue())) {
+                    deadCode.add(assign);
+                }
+            }
+        }
+
+        return deadCode;
+    }
+
+    /**
+     * Writes the indexes of the dead statements.
+     */
+    @Override
+    public void encode(IR ir, Set<Stmt> deadCode, DataOutput out) throws IOException {
+        out.writeInt(deadCode.size());
+        for (Stmt stmt : deadCode) {
+            out.writeInt(stmt.getIndex());
+        }
+    }
+
+    @Override
+    public Set<Stmt> decode(IR ir, ByteBuffer in) {
+        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        for (int i = in.getInt(); i > 0; --i) {
+            deadCode.add(ir.getStmt(in.getInt()));
+        }
+        return deadCode;
+    }
+
+    /**
+     * Prunes the branches that are never taken under given constants,
+     * and traverses the CFG from the entry without the pruned edges.
+     *
+     * @param nodes the nodes of the CFG, indexed by {@link Stmt#getIndex()}
+     * @return the indexes of the reachable statements
+     */
+    private static BitSet getReachableStmts(
+            CFG<Stmt> cfg, Stmt[] nodes, DataflowResult<Stmt, CPFact> constants) {
+        int size = nodes.length;
+        // The out edges of node i are numbered [edgeStart[i], edgeStart[i + 1]).
+        List<Edge<Stmt>> edges = new ArrayList<>();
+        int[] edgeStart = new int[size + 1];
+        for (int i = 0; i < size; ++i) {
+            edgeStart[i] = edges.size();
+            edges.addAll(cfg.getOutEdgesOf(nodes[i]));
+        }
+        edgeStart[size] = edges.size();
 
         // dead branch FIRST - eliminate BAD EDGES
-        for(Stmt s : cfg.getNodes() ) {
-            if(s instanceof If ifBranch) {
+        BitSet badEdges = new BitSet(edges.size());
+        for (int i = 0; i < size; ++i) {
+            Stmt s = nodes[i];
+            if (s instanceof If ifBranch) {
                 Value val = ConstantPropagation.evaluate(ifBranch.getCondition(), constants.getInFact(ifBranch));
-                if(val.isConstant() ) {
-                    int vConst = val.getConstant();
-                    for(Edge<?> e : cfg.getOutEdgesOf(ifBranch) ) {
-                        if(vConst == 1 && e.getKind() == Edge.Kind.IF_FALSE) {
-                            badEdges.add(e);
-                        }
-                        else if(vConst == 0 && e.getKind() == Edge.Kind.IF_TRUE) {
-                            badEdges.add(e);
+                if (val.isConstant()) {
+                    Edge.Kind badKind = val.getConstant() == 1 ?
+                            Edge.Kind.IF_FALSE : Edge.Kind.IF_TRUE;
+                    for (int e = edgeStart[i]; e < edgeStart[i + 1]; ++e) {
+                        if (edges.get(e).getKind() == badKind) {
+                            badEdges.set(e);
                         }
                     }
                 }
-            }
-            else if(s instanceof SwitchStmt switchBranch) {
-                Value val = constants.getInFact(switchBranch).get(switchBranch.getVar() );
-                if( val.isConstant() ) {
+            } else if (s instanceof SwitchStmt switchBranch) {
+                Value val = constants.getInFact(switchBranch).get(switchBranch.getVar());
+                if (val.isConstant()) {
                     int vConst = val.getConstant();
-                    if(switchBranch.getCaseValues().contains(vConst) ) { // some case is not dead
-                        for(Edge<?> e : cfg.getOutEdgesOf(switchBranch) ) {
-                            if(e.getKind() == Edge.Kind.SWITCH_DEFAULT
-                               || (e.getKind() == Edge.Kind.SWITCH_CASE
-                                   && e.getCaseValue() != vConst) ) {
-                                badEdges.add(e);
-                            }
-                        }
-                    }
-                    else {
-                        for(Edge<?> e : cfg.getOutEdgesOf(switchBranch) ) { // all cases except for default are dead
-                            if(e.getKind() == Edge.Kind.SWITCH_CASE) {
-                                badEdges.add(e);
-                            }
+                    // if some case matches, all other cases and default are dead,
+                    // otherwise all cases except for default are dead
+                    boolean matched = switchBranch.getCaseValues().contains(vConst);
+                    for (int e = edgeStart[i]; e < edgeStart[i + 1]; ++e) {
+                        Edge<Stmt> edge = edges.get(e);
+                        if (edge.getKind() == Edge.Kind.SWITCH_CASE ?
+                                !matched || edge.getCaseValue() != vConst :
+                                matched && edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+                            badEdges.set(e);
                         }
                     }
                 }
             }
         }
 
-        // control flow unreachable - get RELATIVELY reachable statements
-        LinkedList<Stmt> reachableStmts = new LinkedList<Stmt>();
-        getReachableStmts(cfg.getEntry(), cfg, reachableStmts, badEdges);
-        for(Stmt s : cfg.getNodes() ) {
-            if(!reachableStmts.contains(s) && !cfg.isExit(s) ) { // Exit Node excluded
-                deadCode.add(s);
-            }
-        }
-
-        // dead assignment - eliminate non-side-effective dead assignments
-        for(Stmt s : reachableStmts) {
-            if(s instanceof AssignStmt<?,?> assign) {
-                if( assign.getLValue() instanceof Var v
-                    && !liveVars.getOutFact(assign).contains(v)
-                    && hasNoSideEffect(assign.getRValue() ) ) {
-                    deadCode.add(s);
+        // control flow unreachable - get RELATIVELY reachable statements,
+        // by an iterative depth-first traversal that skips bad edges
+        BitSet reachable = new BitSet(size);
+        int[] stack = new int[size];
+        int top = 0;
+        int entry = cfg.getEntry().getIndex();
+        reachable.set(entry);
+        stack[top++] = entry;
+        while (top > 0) {
+            int i = stack[--top];
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; ++e) {
+                if (!badEdges.get(e)) {
+                    int target = edges.get(e).getTarget().getIndex();
+                    if (!reachable.get(target)) {
+                        reachable.set(target);
+                        stack[top++] = target;
+                    }
                 }
             }
         }
-
-        return deadCode;
+        return reachable;
     }
 
     // Erh.... I realise that I did not consider many more cases when I see this...f**king good method
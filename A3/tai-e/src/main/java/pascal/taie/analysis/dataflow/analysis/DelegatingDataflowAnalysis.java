@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.List;
+
+/**
+ * Data-flow analysis which delegates all operations to another analysis.
+ * Subclasses override the operations they change, e.g., a transfer
+ * function specialized for one method
+ * (see {@link AbstractDataflowAnalysis#specialize}).
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class DelegatingDataflowAnalysis<Node, Fact>
+        implements DataflowAnalysis<Node, Fact> {
+
+    protected final DataflowAnalysis<Node, Fact> analysis;
+
+    public DelegatingDataflowAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+        this.analysis = analysis;
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<Node> cfg) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public Fact newInitialFact() {
+        return analysis.newInitialFact();
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<Node> cfg) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public Fact resetFact(Fact fact, CFG<Node> cfg) {
+        return analysis.resetFact(fact, cfg);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        return analysis.transferNode(node, in, out);
+    }
+
+    @Override
+    public BlockTransfer<Fact> composeTransfer(List<Node> block, CFG<Node> cfg) {
+        return analysis.composeTransfer(block, cfg);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        return analysis.needTransferEdge(edge);
+    }
+
+    @Override
+    public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+        return analysis.transferEdge(edge, nodeFact);
+    }
+}
@@ -22,21 +22,27 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.defuse.DefUseIndex;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 /**
  * Implementation of classic live variable analysis.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, SetFact<Var>>
+        implements StmtResultCodec<SetFact<Var>> {
 
     public static final String ID = "livevar";
 
@@ -53,16 +59,33 @@ public class LiveVariableAnalysis extends
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODOO - finish me
         // return null;
-        SetFact<Var> exitSetFact = new SetFact<Var>();
+        SetFact<Var> exitSetFact = new BitSetFact<Var>(cfg.getIR().getVars());
         return exitSetFact;
     }
 
+    /**
+     * Live variables are kept in bit vectors indexed by the variables
+     * of the analyzed method, thus the initial facts can only be created
+     * by {@link #newInitialFact(CFG)}.
+     */
     @Override
     public SetFact<Var> newInitialFact() {
-        // TODOO - finish me
-        // return null;
-        SetFact<Var> initSetFact = new SetFact<Var>();
-        return initSetFact;
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Live variables are kept in bit vectors indexed by the variables
+     * of the analyzed method.
+     */
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<Var>(cfg.getIR().getVars());
+    }
+
+    @Override
+    public SetFact<Var> resetFact(SetFact<Var> fact, CFG<Stmt> cfg) {
+        fact.clear();
+        return fact;
     }
 
     @Override
@@ -80,26 +103,107 @@ public class LiveVariableAnalysis extends
         // TODOO - finish me
         // return false;
 
-        if(out == null || in == null) return false;
-
-        SetFact<Var> newIn = out.copy();
+        Var def = stmt.getDef().orElse(null) instanceof Var v ? v : null;
+        return transfer(in, out, def, newIn -> getRValueVars(stmt.getUses(), newIn));
+    }
 
-        try {
-            LValue def = stmt.getDef().get();
-            if(def instanceof Var)
-                newIn.remove( (Var)def );
-        } catch(NoSuchElementException e) {
+    /**
+     * The transfer function for the stmts of given IR takes the variables
+     * defined and used by each stmt from the {@link DefUseIndex} of the IR,
+     * instead of decomposing the stmt at every transfer.
+     */
+    @Override
+    protected DataflowAnalysis<Stmt, SetFact<Var>> specialize(IR ir) {
+        DefUseIndex defUse = DefUseIndex.of(ir);
+        return new DelegatingDataflowAnalysis<>(this) {
+            @Override
+            public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+                int def = defUse.getDefIndex(stmt);
+                return transfer(in, out, def != -1 ? ir.getVar(def) : null, newIn -> {
+                    for (int use : defUse.getUseIndexes(stmt)) {
+                        newIn.add(ir.getVar(use));
+                    }
+                });
+            }
+        };
+    }
 
+    /**
+     * The transfers of the stmts of a block are composed into
+     * IN = gen + (OUT - kill), where kill consists of the variables
+     * defined in the block, and gen consists of the variables used in the
+     * block before they are defined in it. OUT - kill is computed as the
+     * intersection with the complement of kill, which is performed
+     * word-at-a-time on {@link BitSetFact}s.
+     */
+    @Override
+    public BlockTransfer<SetFact<Var>> composeTransfer(List<Stmt> block, CFG<Stmt> cfg) {
+        List<Var> vars = cfg.getIR().getVars();
+        SetFact<Var> gen = new BitSetFact<>(vars);
+        SetFact<Var> notKilled = new BitSetFact<>(vars);
+        vars.forEach(notKilled::add);
+        for (int i = block.size() - 1; i >= 0; --i) {
+            Stmt stmt = block.get(i);
+            if (stmt.getDef().orElse(null) instanceof Var def) {
+                gen.remove(def);
+                notKilled.remove(def);
+            }
+            getRValueVars(stmt.getUses(), gen);
         }
+        return (in, out) -> transfer(in, out, null, newIn -> {
+            newIn.intersect(notKilled);
+            newIn.union(gen);
+        });
+    }
 
-        getRValueVars(stmt.getUses(), newIn);
-
-        if(in.equals(newIn))
+    /**
+     * Transfers the OUT fact of a stmt to its IN fact, i.e.,
+     * IN = (OUT - def) + uses. This is shared by {@link #transferNode}
+     * and the transfer function specialized for an IR, which differ
+     * in how they look up the variables defined and used by the stmt.
+     *
+     * @param def     the variable defined by the stmt, or null if absent
+     * @param addUses adds the variables used by the stmt to given fact
+     */
+    private static boolean transfer(SetFact<Var> in, SetFact<Var> out, Var def,
+                                    Consumer<SetFact<Var>> addUses) {
+        if (out == null || in == null) {
+            return false;
+        }
+        SetFact<Var> newIn = out.copy();
+        if (def != null) {
+            newIn.remove(def);
+        }
+        addUses.accept(newIn);
+        if (in.equals(newIn)) {
             return false;
+        }
         in.set(newIn);
         return true;
     }
 
+    /**
+     * Writes the indexes of the live variables.
+     */
+    @Override
+    public void encodeFact(SetFact<Var> fact, DataOutput out) throws IOException {
+        List<Var> vars = fact.stream().toList();
+        out.writeInt(vars.size());
+        for (Var var : vars) {
+            out.writeInt(var.getIndex());
+        }
+    }
+
+    @Override
+    public SetFact<Var> decodeFact(CFG<Stmt> cfg, ByteBuffer in) {
+        List<Var> vars = cfg.getIR().getVars();
+        SetFact<Var> fact = newInitialFact(cfg);
+        for (int i = in.getInt(); i > 0; --i) {
+            fact.add(vars.get(in.getInt()));
+        }
+        return fact;
+    }
+
     private void getRValueVars(List<RValue> uses, SetFact<Var> set) {
         if(uses == null || uses.isEmpty()) return;
         for(RValue use : uses) {
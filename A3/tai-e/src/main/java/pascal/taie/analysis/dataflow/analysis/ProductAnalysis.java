@@ -0,0 +1,307 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.fact.ProjectedDataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverProfile;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Product of several forward data-flow analyses, which solves the
+ * component analyses in one fixpoint on their product lattice, so that
+ * the component analyses share the work list and the traversal of
+ * the CFG instead of solving the CFG one after another.
+ * <p>
+ * Each fact of the product is a {@link ProductFact} that consists of
+ * one fact of each component, which are met and transferred by the
+ * component analyses. For an edge that some components need to transfer,
+ * the other components pass their facts over the edge unchanged.
+ * <p>
+ * When used as a {@link MethodAnalysis}, the result of each component
+ * is stored in the IR under the ID of the component analysis, as if the
+ * component analyses were executed separately (see {@link #analyze(IR)}),
+ * thus the components must have distinct IDs to be analyzed this way.
+ * The components should not depend on the results of each other.
+ * Before solving an IR, each component is specialized for the IR (see
+ * {@link AbstractDataflowAnalysis#specialize(IR)}), and if any component
+ * enables option {@code profile}, the solving of the product is profiled,
+ * and the profile is stored under the key of each such component.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductAnalysis<Node> extends MethodAnalysis
+        implements DataflowAnalysis<Node, ProductFact> {
+
+    public static final String ID = "product";
+
+    private static final Logger logger = LogManager.getLogger(ProductAnalysis.class);
+
+    private final AnalysisConfig config;
+
+    /**
+     * The component analyses, which are specialized for each IR.
+     */
+    private final List<? extends AbstractDataflowAnalysis<Node, ?>> analyses;
+
+    /**
+     * The analyses whose facts make up the product facts, i.e., the
+     * component analyses, or their specializations for one IR.
+     */
+    private final List<DataflowAnalysis<Node, Object>> components;
+
+    private final List<String> ids;
+
+    /**
+     * Whether the IDs of the components are distinct,
+     * i.e., their results can be stored in the IR.
+     */
+    private final boolean distinctIds;
+
+    private final String solverKind;
+
+    private final Solver<Node, ProductFact> solver;
+
+    /**
+     * Creates the product of given forward analyses, which is solved by
+     * the solver given by option {@code solver} of the first analysis.
+     * A warning is logged if the other analyses choose different solvers.
+     *
+     * @throws AnalysisException if any analysis is not forward.
+     */
+    @SuppressWarnings("unchecked")
+    public ProductAnalysis(List<? extends AbstractDataflowAnalysis<Node, ?>> components) {
+        this(new AnalysisConfig(ID,
+                        "solver", components.get(0).getOptions().getString("solver"),
+                        "parallelism", components.get(0).getOptions().get("parallelism")),
+                components,
+                components.stream()
+                        .map(c -> (DataflowAnalysis<Node, Object>) c)
+                        .toList());
+        for (AbstractDataflowAnalysis<Node, ?> component : components) {
+            if (!component.isForward()) {
+                throw new AnalysisException(
+                        component.getId() + " is not a forward analysis");
+            }
+            String kind = component.getOptions().getString("solver");
+            if (!Objects.equals(kind, solverKind)) {
+                logger.warn("{} is solved by solver {} of {} in the product," +
+                                " instead of its own solver {}", component.getId(),
+                        solverKind, ids.get(0), kind);
+            }
+        }
+    }
+
+    /**
+     * Creates the product of given components, which are the component
+     * analyses or their specializations for one IR.
+     */
+    private ProductAnalysis(AnalysisConfig config,
+                            List<? extends AbstractDataflowAnalysis<Node, ?>> analyses,
+                            List<DataflowAnalysis<Node, Object>> components) {
+        super(config);
+        this.config = config;
+        this.analyses = analyses;
+        this.components = components;
+        this.ids = analyses.stream()
+                .map(AbstractDataflowAnalysis::getId)
+                .toList();
+        this.distinctIds = Set.copyOf(ids).size() == ids.size();
+        this.solverKind = getOptions().getString("solver");
+        this.solver = Solver.makeSolver(this, solverKind);
+    }
+
+    /**
+     * Solves the product of the component analyses on the CFG of given IR,
+     * and stores the result of each component in the IR under its ID.
+     *
+     * @return null, as the product result is not stored.
+     * @throws AnalysisException if the results of two components
+     *                           would be stored under the same ID.
+     */
+    @Override
+    public Object analyze(IR ir) {
+        if (!distinctIds) {
+            throw new AnalysisException(
+                    "cannot store the results of components " + ids +
+                    " under the same ID");
+        }
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        ProductAnalysis<Node> product = specialize(ir);
+        boolean profile = analyses.stream().anyMatch(a ->
+                a.getOptions().getBooleanOrDefault("profile", false));
+        DataflowResult<Node, ProductFact> result;
+        if (profile) {
+            SolverProfile<Node> solverProfile = new SolverProfile<>();
+            result = Solver.makeSolver(product, solverKind, solverProfile)
+                    .solve(cfg);
+            for (AbstractDataflowAnalysis<Node, ?> analysis : analyses) {
+                if (analysis.getOptions().getBooleanOrDefault("profile", false)) {
+                    ir.storeResult(SolverProfile.getKey(analysis.getId()),
+                            solverProfile);
+                }
+            }
+        } else {
+            result = product.solver.solve(cfg);
+        }
+        for (int i = 0; i < components.size(); ++i) {
+            ir.storeResult(ids.get(i), project(result, i));
+        }
+        return null;
+    }
+
+    /**
+     * @return the product of the component analyses specialized for
+     * given IR, or this product if no component is specialized.
+     */
+    @SuppressWarnings("unchecked")
+    private ProductAnalysis<Node> specialize(IR ir) {
+        List<DataflowAnalysis<Node, Object>> specialized = analyses.stream()
+                .map(a -> (DataflowAnalysis<Node, Object>) a.specialize(ir))
+                .toList();
+        for (int i = 0; i < specialized.size(); ++i) {
+            if (specialized.get(i) != components.get(i)) {
+                return new ProductAnalysis<>(config, analyses, specialized);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the result of the i-th component analysis in given product result.
+     */
+    public static <Node, Fact> DataflowResult<Node, Fact> project(
+            DataflowResult<Node, ProductFact> result, int i) {
+        return new ProjectedDataflowResult<>(result, i);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        Object[] facts = new Object[components.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = components.get(i).newBoundaryFact(cfg);
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public ProductFact newInitialFact() {
+        Object[] facts = new Object[components.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = components.get(i).newInitialFact();
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public ProductFact newInitialFact(CFG<Node> cfg) {
+        Object[] facts = new Object[components.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = components.get(i).newInitialFact(cfg);
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public ProductFact resetFact(ProductFact fact, CFG<Node> cfg) {
+        // a new product fact is only created if some component
+        // fact cannot be reset in place
+        Object[] facts = null;
+        for (int i = 0; i < components.size(); ++i) {
+            Object component = fact.get(i);
+            Object reset = components.get(i).resetFact(component, cfg);
+            if (reset != component && facts == null) {
+                facts = new Object[components.size()];
+                for (int j = 0; j < i; ++j) {
+                    facts[j] = fact.get(j);
+                }
+            }
+            if (facts != null) {
+                facts[i] = reset;
+            }
+        }
+        return facts == null ? fact : new ProductFact(facts);
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < components.size(); ++i) {
+            components.get(i).meetInto(fact.get(i), target.get(i));
+        }
+    }
+
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < components.size(); ++i) {
+            // the entry (exit) node has no IN (OUT) fact, and every
+            // component must be transferred, so do not short-circuit
+            changed |= components.get(i).transferNode(node,
+                    in == null ? null : in.get(i),
+                    out == null ? null : out.get(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> component : components) {
+            if (component.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        Object[] facts = new Object[components.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            DataflowAnalysis<Node, Object> component = components.get(i);
+            facts[i] = component.needTransferEdge(edge) ?
+                    component.transferEdge(edge, nodeFact.get(i)) :
+                    nodeFact.get(i);
+        }
+        return new ProductFact(facts);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.ResultCodec;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ResultCodec} for the results of data-flow analyses on the CFGs
+ * of stmts, which writes the IN and OUT facts of the nodes in the order
+ * of their indexes (the stmts, then the entry and exit of the CFG).
+ * The analyses only need to define how a single fact is written and read.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public interface StmtResultCodec<Fact> extends ResultCodec<DataflowResult<Stmt, Fact>> {
+
+    @Override
+    default void encode(IR ir, DataflowResult<Stmt, Fact> result, DataOutput out)
+            throws IOException {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        for (int i = 0; i < ir.getStmts().size() + 2; ++i) {
+            Stmt node = getNode(ir, cfg, i);
+            encodeNullable(result.getInFact(node), out);
+            encodeNullable(result.getOutFact(node), out);
+        }
+    }
+
+    private void encodeNullable(Fact fact, DataOutput out) throws IOException {
+        out.writeBoolean(fact != null);
+        if (fact != null) {
+            encodeFact(fact, out);
+        }
+    }
+
+    @Override
+    default DataflowResult<Stmt, Fact> decode(IR ir, ByteBuffer in) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        int size = ir.getStmts().size() + 2;
+        DataflowResult<Stmt, Fact> result = new IndexedDataflowResult<>(size);
+        for (int i = 0; i < size; ++i) {
+            Stmt node = getNode(ir, cfg, i);
+            result.setInFact(node, decodeNullable(cfg, in));
+            result.setOutFact(node, decodeNullable(cfg, in));
+        }
+        return result;
+    }
+
+    private Fact decodeNullable(CFG<Stmt> cfg, ByteBuffer in) {
+        return in.get() != 0 ? decodeFact(cfg, in) : null;
+    }
+
+    /**
+     * @return the node of the CFG with given index, i.e., the stmt of
+     * the IR with the index, or the entry (resp. exit) of the CFG which
+     * takes the index next to (resp. two after) the last stmt.
+     */
+    private static Stmt getNode(IR ir, CFG<Stmt> cfg, int index) {
+        int n = ir.getStmts().size();
+        if (index < n) {
+            return ir.getStmt(index);
+        }
+        return index == cfg.getEntry().getIndex() ? cfg.getEntry() : cfg.getExit();
+    }
+
+    /**
+     * Writes a (non-null) fact.
+     */
+    void encodeFact(Fact fact, DataOutput out) throws IOException;
+
+    /**
+     * Reads a fact written by {@link #encodeFact(Object, DataOutput)}.
+     */
+    Fact decodeFact(CFG<Stmt> cfg, ByteBuffer in);
+}
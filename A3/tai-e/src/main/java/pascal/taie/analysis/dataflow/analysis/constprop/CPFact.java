@@ -20,57 +20,622 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
+
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Represents data facts of constant propagation, which maps variables
  * to their lattice values.
  * <p>
- * Note that in this implementation, we use absence to represent UNDEF,
- * i.e., if a CPFact does not contain variable-value mapping of a variable,
- * it represents that the lattice value of the variable is UNDEF;
- * moreover, if we set the lattice value of a variable to UNDEF,
- * it effectively removes the variable from the CPFact.
+ * This implementation keeps the values in a primitive array, which has
+ * one slot for each variable that can hold integer values in the analyzed
+ * method (see {@link IntVarSlots}). Each lattice value is encoded in a long:
+ * UNDEF is 0, NAC is 1, and a constant c is (c << 32) | 2. Thus copy, meet
+ * and comparison of facts are performed slot-by-slot on primitives.
+ * The array is copy-on-write: {@link #copy()} shares the array of the
+ * source fact, and so do {@link #copyFrom(MapFact)},
+ * {@link #copyFrom(CPFact, Var, Value)} and {@link #meet(CPFact)} when
+ * the result equals the given fact. A shared array is copied before it is
+ * modified, so that equal neighbouring facts (e.g., the IN and OUT facts
+ * of statements that define no integer variables) share their storage.
+ * A fact is bound to the slots of a method when a variable is set to
+ * a non-UNDEF value for the first time (or when the content of a bound fact
+ * is copied or met into it); before that, all variables are UNDEF.
+ * <p>
+ * If a variable that has no slot in a fact (e.g., it does not belong to
+ * any method, or to the method of a bound fact) is set to a non-UNDEF
+ * value, the fact falls back to the backing map inherited from
+ * {@link MapFact}, and keeps all its values in the map from then on.
+ * The backing map is empty in bound facts.
+ * <p>
+ * Note that a CPFact does not contain variable-value mappings for the
+ * variables whose values are UNDEF, i.e., if we set the lattice value of
+ * a variable to UNDEF, it effectively removes the variable from the CPFact.
  */
 public class CPFact extends MapFact<Var, Value> {
 
+    private static final long UNDEF = 0L;
+
+    private static final long NAC = 1L;
+
+    private static final long CONSTANT = 2L;
+
+    /**
+     * Slots of the variables in the method of this fact,
+     * or null if this fact has not been bound to any method yet.
+     */
+    private IntVarSlots slots;
+
+    /**
+     * Encoded values of the variables, indexed by their slots.
+     */
+    private long[] values;
+
+    /**
+     * Whether {@link #values} may be shared with other facts.
+     */
+    private boolean shared;
+
     public CPFact() {
-        this(Collections.emptyMap());
+        super(Collections.emptyMap());
+    }
+
+    /**
+     * Creates a fact bound to given slots, in which all variables are UNDEF.
+     */
+    CPFact(IntVarSlots slots) {
+        this(slots, new long[slots.size()], false);
     }
 
     private CPFact(Map<Var, Value> map) {
         super(map);
     }
 
+    private CPFact(IntVarSlots slots, long[] values, boolean shared) {
+        this();
+        this.slots = slots;
+        this.values = values;
+        this.shared = shared;
+    }
+
+    private static long encode(Value value) {
+        if (value.isConstant()) {
+            return ((long) value.getConstant() << 32) | CONSTANT;
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return UNDEF;
+        }
+    }
+
+    private static Value decode(long value) {
+        if (value == UNDEF) {
+            return Value.getUndef();
+        } else if (value == NAC) {
+            return Value.getNAC();
+        } else {
+            return Value.makeConstant((int) (value >> 32));
+        }
+    }
+
+    private void bind(IntVarSlots slots) {
+        this.slots = slots;
+        this.values = new long[slots.size()];
+        this.shared = false;
+    }
+
+    /**
+     * @return true if this fact keeps its values in the backing map.
+     */
+    private boolean isMapBacked() {
+        return slots == null && !map.isEmpty();
+    }
+
+    /**
+     * Moves the values of this bound fact to the backing map.
+     */
+    private void unbind() {
+        forEach(map::put);
+        slots = null;
+        values = null;
+        shared = false;
+    }
+
+    /**
+     * Binds this fact to given slots if it is neither bound nor backed
+     * by the map, which does not change its content.
+     */
+    void bindIfUnbound(IntVarSlots slots) {
+        if (this.slots == null && map.isEmpty()) {
+            bind(slots);
+        }
+    }
+
+    /**
+     * @return the values of this fact, which are copied first
+     * if they may be shared with other facts.
+     */
+    private long[] writableValues() {
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+        return values;
+    }
+
+    /**
+     * Shares the values of given fact with this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    private boolean share(CPFact fact) {
+        boolean changed = !Arrays.equals(values, fact.values);
+        values = fact.values;
+        shared = true;
+        fact.shared = true;
+        return changed;
+    }
+
+    private int getSlot(Var var) {
+        return slots == null ? -1 : slots.getSlot(var);
+    }
+
+    /**
+     * @return the slots this fact is bound to, or the slots of the IR
+     * which given variable belongs to if this fact is not bound yet,
+     * or null if the values are not kept in slots.
+     */
+    @Nullable
+    IntVarSlots slotsOf(Var var) {
+        if (slots != null) {
+            return slots;
+        }
+        return map.isEmpty() ? IntVarSlots.of(var) : null;
+    }
+
+    /**
+     * @return the slots this fact is bound to, or null if this fact
+     * is not bound yet.
+     */
+    IntVarSlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return true if some variable whose slot is not in given set
+     * is not UNDEF in this fact.
+     */
+    private boolean hasValuesOutside(BitSet live) {
+        if (slots != null) {
+            for (int i = live.nextClearBit(0); i < values.length;
+                 i = live.nextClearBit(i + 1)) {
+                if (values[i] != UNDEF) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of the variable at given slot in this fact,
+     * which must not be backed by the map.
+     */
+    Value get(int slot) {
+        return slots == null ? Value.getUndef() : decode(values[slot]);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
      */
     @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        if (slots == null) {
+            Value value = map.get(key);
+            return value == null ? Value.getUndef() : value;
+        }
+        int slot = getSlot(key);
+        return slot == -1 ? Value.getUndef() : decode(values[slot]);
     }
 
+    /**
+     * Updates the value of given variable in this fact. Setting a
+     * variable to UNDEF removes the variable from this fact.
+     *
+     * @return if the update changes this fact.
+     */
     @Override
     public boolean update(Var key, Value value) {
-        if (value.isUndef()) {
-            // if the client code sets variable key to UNDEF,
-            // then we remove the variable from the CPFact
-            // as we use absence to represent UNDEF.
-            return remove(key) != null;
-        } else {
+        long newValue = encode(value);
+        if (slots == null) {
+            if (newValue == UNDEF) {
+                return map.remove(key) != null;
+            }
+            IntVarSlots keySlots = map.isEmpty() ? IntVarSlots.of(key) : null;
+            if (keySlots == null) {
+                return super.update(key, value);
+            }
+            bind(keySlots);
+        }
+        int slot = slots.getSlot(key);
+        if (slot == -1) {
+            if (newValue == UNDEF) {
+                return false;
+            }
+            unbind();
             return super.update(key, value);
         }
+        if (values[slot] == newValue) {
+            return false;
+        }
+        writableValues()[slot] = newValue;
+        return true;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        if (slots == null) {
+            return map.remove(key);
+        }
+        int slot = getSlot(key);
+        if (slot == -1 || values[slot] == UNDEF) {
+            return null;
+        }
+        Value oldValue = decode(values[slot]);
+        writableValues()[slot] = UNDEF;
+        return oldValue;
+    }
+
+    /**
+     * Copies the content from given fact to this fact. The variables
+     * absent in given fact are left unchanged in this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof CPFact that && that.slots != null) {
+            bindIfUnbound(that.slots);
+            if (slots == that.slots) {
+                if (values == that.values) {
+                    return false;
+                }
+                long[] thatValues = that.values;
+                // the result equals that fact if the variables absent
+                // in that fact are also absent in this fact
+                boolean canShare = true;
+                for (int i = 0; i < values.length && canShare; ++i) {
+                    canShare = thatValues[i] != UNDEF || values[i] == UNDEF;
+                }
+                if (canShare) {
+                    return share(that);
+                }
+                boolean changed = false;
+                for (int i = 0; i < values.length; ++i) {
+                    long value = thatValues[i];
+                    if (value != UNDEF && value != values[i]) {
+                        writableValues()[i] = value;
+                        changed = true;
+                    }
+                }
+                return changed;
+            }
+        }
+        boolean changed = false;
+        for (Map.Entry<Var, Value> entry : fact.entries().toList()) {
+            changed |= update(entry.getKey(), entry.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the content from given fact to this fact as
+     * {@link #copyFrom(MapFact)}, except that variable {@code var} takes
+     * {@code value} instead of its value in given fact. This applies the
+     * transfer of a statement that assigns {@code value} to {@code var}
+     * without creating a copy of given fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(CPFact fact, Var var, Value value) {
+        boolean changed = false;
+        if (fact.isMapBacked()) {
+            for (Map.Entry<Var, Value> entry : fact.entries().toList()) {
+                if (entry.getKey() != var) {
+                    changed |= update(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        if (fact.slots != null) {
+            bindIfUnbound(fact.slots);
+            if (slots != fact.slots) {
+                CPFact newFact = fact.copy();
+                newFact.update(var, value);
+                return copyFrom(newFact);
+            }
+            int slot = slots.getSlot(var);
+            long[] factValues = fact.values;
+            if (canShare(factValues, slot, value)) {
+                return share(fact);
+            }
+            for (int i = 0; i < values.length; ++i) {
+                long v = factValues[i];
+                if (i != slot && v != UNDEF && v != values[i]) {
+                    writableValues()[i] = v;
+                    changed = true;
+                }
+            }
+        }
+        // as in copyFrom(MapFact), UNDEF does not overwrite this fact
+        if (!value.isUndef()) {
+            changed |= update(var, value);
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the content from given fact to this fact as
+     * {@link #copyFrom(CPFact, Var, Value)}, except that the variables
+     * whose slots are not in {@code live} are taken as UNDEF in given fact.
+     * Given fact itself is left unchanged. If {@code var} is null, this
+     * copies the masked content only, as {@link #copyFrom(MapFact)}.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean copyFrom(CPFact fact, BitSet live, @Nullable Var var, Value value) {
+        if (!fact.hasValuesOutside(live)) {
+            return var != null ? copyFrom(fact, var, value) : copyFrom(fact);
+        }
+        bindIfUnbound(fact.slots);
+        if (slots != fact.slots) {
+            CPFact newFact = new CPFact(fact.slots);
+            long[] newValues = newFact.values;
+            for (int i = live.nextSetBit(0); i >= 0 && i < newValues.length;
+                 i = live.nextSetBit(i + 1)) {
+                newValues[i] = fact.values[i];
+            }
+            return var != null ? copyFrom(newFact, var, value) : copyFrom(newFact);
+        }
+        int slot = var != null ? slots.getSlot(var) : -1;
+        long[] factValues = fact.values;
+        boolean changed = false;
+        for (int i = live.nextSetBit(0); i >= 0 && i < values.length;
+             i = live.nextSetBit(i + 1)) {
+            long v = factValues[i];
+            if (i != slot && v != UNDEF && v != values[i]) {
+                writableValues()[i] = v;
+                changed = true;
+            }
+        }
+        if (var != null && !value.isUndef()) {
+            changed |= update(var, value);
+        }
+        return changed;
+    }
+
+    /**
+     * @return true if the result of {@link #copyFrom(CPFact, Var, Value)}
+     * equals the given fact, whose values are {@code factValues}.
+     */
+    private boolean canShare(long[] factValues, int slot, Value value) {
+        if (values == factValues) {
+            return slot == -1 ? value.isUndef() :
+                    value.isUndef() || encode(value) == values[slot];
+        }
+        for (int i = 0; i < values.length; ++i) {
+            long result;
+            if (i == slot) {
+                result = value.isUndef() ? values[i] : encode(value);
+            } else {
+                result = factValues[i] != UNDEF ? factValues[i] : values[i];
+            }
+            if (result != factValues[i]) {
+                return false;
+            }
+        }
+        // var without slot moves this fact to the map unless it takes
+        // UNDEF, see update()
+        return slot != -1 || value.isUndef();
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(CPFact fact) {
+        if (fact.slots == null && !fact.isMapBacked()) {
+            return false;
+        }
+        if (fact.slots != null) {
+            bindIfUnbound(fact.slots);
+        }
+        boolean changed = false;
+        if (slots != null && slots == fact.slots) {
+            if (values == fact.values) {
+                return false;
+            }
+            long[] factValues = fact.values;
+            // the result equals given fact if each variable of this fact
+            // is absent in, or takes the same value or NAC in given fact
+            boolean canShare = true;
+            for (int i = 0; i < values.length && canShare; ++i) {
+                long value = factValues[i];
+                long oldValue = values[i];
+                canShare = oldValue == UNDEF || oldValue == value || value == NAC;
+            }
+            if (canShare) {
+                return share(fact);
+            }
+            for (int i = 0; i < values.length; ++i) {
+                long value = factValues[i];
+                long oldValue = values[i];
+                if (value != UNDEF && value != oldValue) {
+                    writableValues()[i] = oldValue == UNDEF ? value : NAC;
+                    changed = true;
+                }
+            }
+        } else {
+            for (Map.Entry<Var, Value> entry : fact.entries().toList()) {
+                Value value = entry.getValue();
+                Value oldValue = get(entry.getKey());
+                if (!value.equals(oldValue)) {
+                    changed |= update(entry.getKey(),
+                            oldValue.isUndef() ? value : Value.getNAC());
+                }
+            }
+        }
+        return changed;
     }
 
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        if (slots == null) {
+            return map.isEmpty() ? new CPFact() : new CPFact(map);
+        }
+        shared = true;
+        return new CPFact(slots, values, true);
+    }
+
+    @Override
+    public void clear() {
+        if (isEmpty()) {
+            return;
+        }
+        if (slots == null) {
+            map.clear();
+        } else if (shared) {
+            // no need to copy the shared values which are all dropped
+            values = new long[values.length];
+            shared = false;
+        } else {
+            Arrays.fill(values, UNDEF);
+        }
+    }
+
+    /**
+     * @return a {@link Set} of the variables contained in this fact.
+     * Unlike {@link MapFact#keySet()}, the returned set is not a view
+     * of this fact.
+     */
+    @Override
+    public Set<Var> keySet() {
+        Set<Var> keys = Sets.newHybridSet();
+        forEach((var, value) -> keys.add(var));
+        return keys;
+    }
+
+    @Override
+    public int size() {
+        if (slots == null) {
+            return super.size();
+        }
+        int size = 0;
+        for (long value : values) {
+            if (value != UNDEF) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        if (slots == null) {
+            return super.entries();
+        }
+        return IntStream.range(0, values.length)
+                .filter(i -> values[i] != UNDEF)
+                .mapToObj(i -> Map.entry(slots.getVar(i), decode(values[i])));
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        if (slots == null) {
+            map.forEach(action);
+        } else {
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] != UNDEF) {
+                    action.accept(slots.getVar(i), decode(values[i]));
+                }
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        if (slots == null) {
+            return map.isEmpty();
+        }
+        if (values != null) {
+            for (long value : values) {
+                if (value != UNDEF) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CPFact that = (CPFact) o;
+        if (slots != null && slots == that.slots) {
+            return values == that.values || Arrays.equals(values, that.values);
+        }
+        if (isMapBacked() || that.isMapBacked()) {
+            return size() == that.size() && entries().allMatch(
+                    e -> e.getValue().equals(that.get(e.getKey())));
+        }
+        return isEmpty() && that.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode(), which is not called on the backing
+        // map as the hash codes of its entries may be computed differently
+        int hash = 0;
+        for (Map.Entry<Var, Value> e : map.entrySet()) {
+            hash += e.getKey().hashCode() ^ e.getValue().hashCode();
+        }
+        if (slots != null) {
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] != UNDEF) {
+                    hash += slots.getVar(i).hashCode() ^
+                            decode(values[i]).hashCode();
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
     }
 }
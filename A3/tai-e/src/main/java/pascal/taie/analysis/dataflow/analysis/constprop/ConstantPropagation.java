@@ -23,6 +23,11 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.BlockTransfer;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DelegatingDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.StmtResultCodec;
+import pascal.taie.analysis.defuse.DefUseIndex;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
@@ -33,14 +38,32 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
 
 public class ConstantPropagation extends
-        AbstractDataflowAnalysis<Stmt, CPFact> {
+        AbstractDataflowAnalysis<Stmt, CPFact>
+        implements StmtResultCodec<CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * If true, the variables that are dead at the entry of each stmt
+     * are dropped when its IN fact is transferred to its OUT fact
+     * (see {@link LiveSlots}), while the IN fact is left unchanged.
+     * This does not change the values of the live variables, while
+     * the facts carry fewer constants through the loops of long methods.
+     */
+    private final boolean pruneDead;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        pruneDead = getOptions().getBooleanOrDefault("prune-dead", false);
     }
 
     @Override
@@ -52,8 +75,13 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODOO - finish me
         // return null;
-        CPFact fact = new CPFact();
+        return newBoundaryFact(cfg, new CPFact());
+    }
 
+    /**
+     * Sets the parameters in given fact, and returns the fact.
+     */
+    private static CPFact newBoundaryFact(CFG<Stmt> cfg, CPFact fact) {
         for(Var v : cfg.getIR().getParams() ) {
             if(canHoldInt(v) ) {
                 fact.update(v, Value.getNAC());
@@ -73,12 +101,48 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact resetFact(CPFact fact, CFG<Stmt> cfg) {
+        fact.clear();
+        return fact;
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODOO - finish me
-        fact.forEach((v, val) -> {
-            target.update(v, meetValue(val, target.get(v)));
-        } );
+        target.meet(fact);
+    }
+
+    /**
+     * Writes the variables of the fact with their values,
+     * where NAC is written as a flag, and a constant as a flag
+     * followed by the constant.
+     */
+    @Override
+    public void encodeFact(CPFact fact, DataOutput out) throws IOException {
+        List<Map.Entry<Var, Value>> entries = fact.entries().toList();
+        out.writeInt(entries.size());
+        for (Map.Entry<Var, Value> entry : entries) {
+            out.writeInt(entry.getKey().getIndex());
+            Value value = entry.getValue();
+            out.writeBoolean(value.isConstant());
+            if (value.isConstant()) {
+                out.writeInt(value.getConstant());
+            }
+        }
+    }
+
+    @Override
+    public CPFact decodeFact(CFG<Stmt> cfg, ByteBuffer in) {
+        List<Var> vars = cfg.getIR().getVars();
+        // bound to the slots of the IR, which may not be kept by its method
+        CPFact fact = new CPFact(IntVarSlots.of(cfg.getIR()));
+        for (int i = in.getInt(); i > 0; --i) {
+            Var var = vars.get(in.getInt());
+            fact.update(var, in.get() != 0 ?
+                    Value.makeConstant(in.getInt()) : Value.getNAC());
+        }
+        return fact;
     }
 
     /**
@@ -113,15 +177,149 @@ public class ConstantPropagation extends
         // return false;
         if(in == null || out == null) return false;
 
-        if(stmt instanceof DefinitionStmt
-                && ((DefinitionStmt<LValue, RValue>) stmt).getLValue() instanceof Var v
-                && canHoldInt(v) ) {
-            CPFact newOut = in.copy();
-            newOut.update(v, evaluate( ((DefinitionStmt<LValue, RValue>) stmt).getRValue(), in) );
-            return out.copyFrom(newOut);
+        Var def = getIntDef(stmt);
+        IntVarSlots slots = def != null ? in.slotsOf(def) : null;
+        LiveSlots liveSlots = pruneDead && in.getSlots() != null ?
+                LiveSlots.of(in.getSlots().getIR()) : null;
+        return transfer(stmt, in, out, def, slots, liveSlots);
+    }
+
+    /**
+     * @return the variable defined by given stmt if it can hold
+     * integer values, otherwise null.
+     */
+    private static Var getIntDef(Stmt stmt) {
+        return stmt instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var v
+                && canHoldInt(v) ? v : null;
+    }
+
+    /**
+     * Composes the transfers of the stmts of a block, unless the dead
+     * variables are pruned, which are different at each stmt.
+     */
+    @Override
+    public BlockTransfer<CPFact> composeTransfer(List<Stmt> block, CFG<Stmt> cfg) {
+        if (pruneDead) {
+            return null;
         }
+        Var[] defs = block.stream()
+                .map(ConstantPropagation::getIntDef)
+                .toArray(Var[]::new);
+        return composeTransfer(block, defs, null);
+    }
 
-        return out.copyFrom(in); // DO NOT RETURN FALSE HERE, OR YOU WOULD BLOCK THE PROPAGATION!
+    /**
+     * The transfer function for the stmts of given IR takes the variable
+     * defined by each stmt from the {@link DefUseIndex} of the IR, and the
+     * slots and evaluators from the {@link IntVarSlots} of the IR,
+     * instead of inspecting the stmt at every transfer.
+     */
+    @Override
+    protected DataflowAnalysis<Stmt, CPFact> specialize(IR ir) {
+        DefUseIndex defUse = DefUseIndex.of(ir);
+        IntVarSlots slots = IntVarSlots.of(ir);
+        LiveSlots liveSlots = pruneDead ? LiveSlots.of(ir) : null;
+        // the facts are bound to the slots of the IR, so that they are
+        // readable by the evaluators even if the variables have no method
+        return new DelegatingDataflowAnalysis<>(this) {
+            @Override
+            public CPFact newBoundaryFact(CFG<Stmt> cfg) {
+                return ConstantPropagation.newBoundaryFact(cfg, new CPFact(slots));
+            }
+
+            @Override
+            public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+                if (in == null || out == null) {
+                    return false;
+                }
+                out.bindIfUnbound(slots);
+                // the evaluator is present iff the stmt defines
+                // a variable that can hold integer values
+                Var def = slots.getEvaluator(stmt) != null ?
+                        defUse.getDef(stmt) : null;
+                return transfer(stmt, in, out, def, slots, liveSlots);
+            }
+
+            @Override
+            public BlockTransfer<CPFact> composeTransfer(List<Stmt> block, CFG<Stmt> cfg) {
+                if (pruneDead) {
+                    return null;
+                }
+                Var[] defs = block.stream()
+                        .map(s -> slots.getEvaluator(s) != null ? defUse.getDef(s) : null)
+                        .toArray(Var[]::new);
+                return ConstantPropagation.composeTransfer(block, defs, slots);
+            }
+        };
+    }
+
+    /**
+     * Composes the transfers of the stmts of a block. The composed transfer
+     * applies the assignments of the block one after another on a single
+     * copy of IN, which shares the values of IN until the first assignment,
+     * and then copies the result to OUT, instead of transferring a fact
+     * for each stmt.
+     *
+     * @param defs  the variables defined by the stmts of the block
+     *              as in {@link #transfer}
+     * @param slots the slots of the method whose evaluators are used
+     *              for the right-hand sides, or null
+     */
+    private static BlockTransfer<CPFact> composeTransfer(
+            List<Stmt> block, Var[] defs, IntVarSlots slots) {
+        return (in, out) -> {
+            if (in == null || out == null) {
+                return false;
+            }
+            CPFact fact = in.copy();
+            if (slots != null) {
+                fact.bindIfUnbound(slots);
+                out.bindIfUnbound(slots);
+            }
+            for (int i = 0; i < defs.length; ++i) {
+                Var def = defs[i];
+                if (def != null) {
+                    Stmt stmt = block.get(i);
+                    ExpEvaluator evaluator = slots != null ?
+                            slots.getEvaluator(stmt) : null;
+                    fact.update(def, evaluator != null ? evaluator.evaluate(fact) :
+                            evaluate(((DefinitionStmt<?, ?>) stmt).getRValue(), fact));
+                }
+            }
+            return out.copyFrom(fact);
+        };
+    }
+
+    /**
+     * Transfers the IN fact of given stmt to its OUT fact. This is shared
+     * by {@link #transferNode} and the transfer function specialized for
+     * an IR, which differ in how they look up the arguments.
+     *
+     * @param def       the variable defined by the stmt if it can hold
+     *                  integer values, otherwise null
+     * @param slots     the slots of the method if def is not null and
+     *                  the values of IN are kept in slots, otherwise null
+     * @param liveSlots the live slots of the method if the dead variables
+     *                  are pruned from the facts, otherwise null
+     */
+    private static boolean transfer(Stmt stmt, CPFact in, CPFact out, Var def,
+                                    IntVarSlots slots, LiveSlots liveSlots) {
+        // the slots of the dead variables are masked when writing OUT
+        BitSet live = liveSlots != null ? liveSlots.getLiveIn(stmt) : null;
+        if (def != null) {
+            // only def may differ between IN and OUT, so OUT is updated
+            // in place instead of transferring a copy of IN. The right-hand
+            // side is evaluated by its evaluator compiled with the slots.
+            ExpEvaluator evaluator = slots != null ? slots.getEvaluator(stmt) : null;
+            Value value = evaluator != null ? evaluator.evaluate(in) :
+                    evaluate(((DefinitionStmt<?, ?>) stmt).getRValue(), in);
+            return live != null ? out.copyFrom(in, live, def, value) :
+                    out.copyFrom(in, def, value);
+        }
+        // DO NOT RETURN FALSE HERE, OR YOU WOULD BLOCK THE PROPAGATION!
+        return live != null ? out.copyFrom(in, live, null, null) :
+                out.copyFrom(in);
     }
 
     /**
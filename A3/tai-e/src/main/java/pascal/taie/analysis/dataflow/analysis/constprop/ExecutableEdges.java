@@ -0,0 +1,54 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+/**
+ * Executable CFG edges and statements, which are tracked by a constant
+ * propagation (e.g., {@link SparseConstantPropagation}) during its fixpoint.
+ * An edge is executable if its source is executable and, for branches of
+ * {@link If} and {@link SwitchStmt}, the branch may be taken under the
+ * computed constants. A statement is executable if it is the entry
+ * or the target of some executable edge.
+ * <p>
+ * Results of constant propagation that implement this interface let
+ * clients (e.g., dead code detection) find unreachable branches and
+ * statements without evaluating the branch conditions again.
+ */
+public interface ExecutableEdges {
+
+    /**
+     * @return true if given edge may be executed, otherwise false.
+     */
+    boolean isExecutable(Edge<Stmt> edge);
+
+    /**
+     * @return true if given statement may be executed, otherwise false.
+     */
+    boolean isExecutable(Stmt stmt);
+}
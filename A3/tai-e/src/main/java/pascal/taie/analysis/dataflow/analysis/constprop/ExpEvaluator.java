@@ -0,0 +1,240 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+/**
+ * Evaluator of an expression in constant propagation, which is compiled
+ * from the expression once (see {@link #compile(Exp, IntVarSlots)}),
+ * so that evaluating it neither dispatches on the kind of the expression
+ * and its operator, nor looks up the slots of its operands again.
+ * Each operator is compiled to its own evaluator class, thus the
+ * evaluation of each operator is monomorphic.
+ * <p>
+ * The compiled evaluators give the same values as
+ * {@link ConstantPropagation#evaluate(Exp, CPFact)}.
+ */
+@FunctionalInterface
+interface ExpEvaluator {
+
+    /**
+     * @param in IN fact of the statement, which is bound to the slots
+     *           the evaluator was compiled with (or not bound yet)
+     * @return the value of the compiled expression.
+     */
+    Value evaluate(CPFact in);
+
+    ExpEvaluator UNDEF = in -> Value.getUndef();
+
+    ExpEvaluator NAC = in -> Value.getNAC();
+
+    /**
+     * Compiles given expression of the IR of given slots.
+     */
+    static ExpEvaluator compile(Exp exp, IntVarSlots slots) {
+        if (exp instanceof IntLiteral literal) {
+            Value value = Value.makeConstant(literal.getValue());
+            return in -> value;
+        } else if (exp instanceof Var var) {
+            int slot = slots.getSlot(var);
+            return slot == -1 ? UNDEF : in -> in.get(slot);
+        } else if (exp instanceof BinaryExp binary) {
+            int x = slots.getSlot(binary.getOperand1());
+            int y = slots.getSlot(binary.getOperand2());
+            if (x == -1 || y == -1) {
+                return UNDEF; // ignore unrelated types
+            }
+            return compileBinary(binary.getOperator(), x, y);
+        } else if (exp instanceof NegExp neg) {
+            int slot = slots.getSlot(neg.getValue());
+            if (slot == -1) {
+                return UNDEF;
+            }
+            return in -> {
+                Value value = in.get(slot);
+                return value.isConstant() ?
+                        Value.makeConstant(-value.getConstant()) : value;
+            };
+        } else if (exp instanceof FieldAccess || exp instanceof ArrayAccess) {
+            return ConstantPropagation.isInIntTypeFamily(exp.getType()) ?
+                    NAC : UNDEF;
+        } else if (exp instanceof NewExp) {
+            return UNDEF;
+        } else {
+            return NAC;
+        }
+    }
+
+    private static ExpEvaluator compileBinary(BinaryExp.Op op, int x, int y) {
+        if (op instanceof ArithmeticExp.Op arithmetic) {
+            return switch (arithmetic) {
+                case ADD -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() + b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case SUB -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() - b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case MUL -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() * b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case DIV -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    if (!areConstants(a, b)) {
+                        return meetNonConstants(a, b);
+                    }
+                    return b.getConstant() == 0 ? Value.getUndef() :
+                            Value.makeConstant(a.getConstant() / b.getConstant());
+                };
+                case REM -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    if (!areConstants(a, b)) {
+                        return meetNonConstants(a, b);
+                    }
+                    return b.getConstant() == 0 ? Value.getUndef() :
+                            Value.makeConstant(a.getConstant() % b.getConstant());
+                };
+            };
+        } else if (op instanceof BitwiseExp.Op bitwise) {
+            return switch (bitwise) {
+                case OR -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() | b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case AND -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() & b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case XOR -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() ^ b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+            };
+        } else if (op instanceof ConditionExp.Op condition) {
+            return switch (condition) {
+                case EQ -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() == b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case NE -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() != b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case LT -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() < b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case GT -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() > b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case LE -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() <= b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case GE -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            toValue(a.getConstant() >= b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+            };
+        } else if (op instanceof ShiftExp.Op shift) {
+            return switch (shift) {
+                case SHL -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() << b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case SHR -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() >> b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+                case USHR -> in -> {
+                    Value a = in.get(x), b = in.get(y);
+                    return areConstants(a, b) ?
+                            Value.makeConstant(a.getConstant() >>> b.getConstant()) :
+                            meetNonConstants(a, b);
+                };
+            };
+        } else {
+            throw new AnalysisException("Unrecognised Operator");
+        }
+    }
+
+    private static boolean areConstants(Value a, Value b) {
+        return a.isConstant() && b.isConstant();
+    }
+
+    /**
+     * @return the value of a binary expression whose operands are
+     * not both constants: NAC if any operand is NAC, otherwise UNDEF.
+     */
+    private static Value meetNonConstants(Value a, Value b) {
+        return a.isNAC() || b.isNAC() ? Value.getNAC() : Value.getUndef();
+    }
+
+    private static Value toValue(boolean b) {
+        return Value.makeConstant(b ? 1 : 0);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Numbers the variables of an IR that can hold integer values
+ * (see {@link ConstantPropagation#canHoldInt(Var)}) with consecutive
+ * slots, which are used to locate the variables in {@link CPFact}.
+ * <p>
+ * The slots of an IR are computed once and cached in the IR,
+ * use {@link #of(Var)} or {@link #of(IR)} to obtain them. Together with
+ * the slots, the right-hand sides of the definitions of the variables
+ * are compiled to {@link ExpEvaluator}s, so that the transfer functions
+ * do not interpret the expressions again at every visit.
+ */
+final class IntVarSlots {
+
+    /**
+     * Key of the slots in the result holder of {@link IR}.
+     */
+    private static final String KEY = "int-var-slots";
+
+    /**
+     * The IR which these slots belong to.
+     */
+    private final IR ir;
+
+    /**
+     * Map from variable index to slot, or -1 if the variable
+     * cannot hold integer values.
+     */
+    private final int[] slotOfVar;
+
+    /**
+     * Map from slot to variable.
+     */
+    private final Var[] varOfSlot;
+
+    /**
+     * Map from stmt index to the evaluator of the right-hand side of
+     * the stmt, or null if the stmt does not define a variable
+     * that can hold integer values.
+     */
+    private final ExpEvaluator[] evaluators;
+
+    private IntVarSlots(IR ir) {
+        this.ir = ir;
+        List<Var> vars = ir.getVars();
+        slotOfVar = new int[vars.size()];
+        Arrays.fill(slotOfVar, -1);
+        int size = 0;
+        for (Var var : vars) {
+            if (ConstantPropagation.canHoldInt(var)) {
+                slotOfVar[var.getIndex()] = size++;
+            }
+        }
+        varOfSlot = new Var[size];
+        for (Var var : vars) {
+            int slot = slotOfVar[var.getIndex()];
+            if (slot != -1) {
+                varOfSlot[slot] = var;
+            }
+        }
+        List<Stmt> stmts = ir.getStmts();
+        evaluators = new ExpEvaluator[stmts.size()];
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof DefinitionStmt<?, ?> def &&
+                    def.getLValue() instanceof Var var &&
+                    getSlot(var) != -1) {
+                evaluators[stmt.getIndex()] =
+                        ExpEvaluator.compile(def.getRValue(), this);
+            }
+        }
+    }
+
+    /**
+     * @return the slots of the IR which given variable belongs to,
+     * or null if the variable does not belong to any method.
+     * The IR is obtained by {@link JMethod#getIR()}, thus the variables
+     * of an IR which is not kept by its method (e.g., streamed by
+     * {@code MethodPipeline}) must be looked up by {@link #of(IR)}.
+     */
+    @Nullable
+    static IntVarSlots of(Var var) {
+        JMethod method = var.getMethod();
+        return method == null ? null : of(method.getIR());
+    }
+
+    /**
+     * @return the slots of given IR.
+     */
+    static IntVarSlots of(IR ir) {
+        return ir.getResult(KEY, () -> new IntVarSlots(ir));
+    }
+
+    /**
+     * @return the IR which these slots belong to.
+     */
+    IR getIR() {
+        return ir;
+    }
+
+    /**
+     * @return the number of slots.
+     */
+    int size() {
+        return varOfSlot.length;
+    }
+
+    /**
+     * @return the slot of given variable, or -1 if the variable cannot
+     * hold integer values or does not belong to the IR of these slots.
+     */
+    int getSlot(Var var) {
+        int index = var.getIndex();
+        if (index < slotOfVar.length) {
+            int slot = slotOfVar[index];
+            if (slot != -1 && varOfSlot[slot] == var) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the variable located at given slot.
+     */
+    Var getVar(int slot) {
+        return varOfSlot[slot];
+    }
+
+    /**
+     * @return the compiled evaluator of the right-hand side of given stmt,
+     * or null if the stmt does not define a variable that can hold
+     * integer values.
+     */
+    ExpEvaluator getEvaluator(Stmt stmt) {
+        int index = stmt.getIndex();
+        return index < evaluators.length ? evaluators[index] : null;
+    }
+}
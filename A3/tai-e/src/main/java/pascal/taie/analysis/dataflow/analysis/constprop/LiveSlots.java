@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The slots (see {@link IntVarSlots}) of the variables that are live
+ * at the entry of each stmt of an IR, which are used to drop the dead
+ * variables from the facts of constant propagation.
+ * <p>
+ * The live variables are taken from the result of
+ * {@link LiveVariableAnalysis} in the IR, or computed by the analysis
+ * if the IR does not have the result yet. The slots of an IR are computed
+ * once and cached in the IR, use {@link #of(IR)} to obtain them.
+ */
+final class LiveSlots {
+
+    /**
+     * Key of the live slots in the result holder of {@link IR}.
+     */
+    private static final String KEY = "constprop-live-slots";
+
+    /**
+     * Map from stmt index to the slots of the variables
+     * that are live at the entry of the stmt.
+     */
+    private final BitSet[] liveIn;
+
+    private LiveSlots(IR ir) {
+        DataflowResult<Stmt, SetFact<Var>> liveVars =
+                ir.getResult(LiveVariableAnalysis.ID);
+        if (liveVars == null) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            liveVars = Solver.makeSolver(new LiveVariableAnalysis(
+                    new AnalysisConfig(LiveVariableAnalysis.ID))).solve(cfg);
+        }
+        IntVarSlots slots = IntVarSlots.of(ir);
+        List<Stmt> stmts = ir.getStmts();
+        liveIn = new BitSet[stmts.size()];
+        for (Stmt stmt : stmts) {
+            BitSet live = new BitSet(slots.size());
+            liveVars.getInFact(stmt).stream().forEach(var -> {
+                int slot = slots.getSlot(var);
+                if (slot != -1) {
+                    live.set(slot);
+                }
+            });
+            liveIn[stmt.getIndex()] = live;
+        }
+    }
+
+    /**
+     * @return the live slots of given IR.
+     */
+    static LiveSlots of(IR ir) {
+        return ir.getResult(KEY, () -> new LiveSlots(ir));
+    }
+
+    /**
+     * @return the slots of the variables that are live at the entry of
+     * given stmt, or null if the stmt does not belong to the IR.
+     */
+    BitSet getLiveIn(Stmt stmt) {
+        int index = stmt.getIndex();
+        return index < liveIn.length ? liveIn[index] : null;
+    }
+}
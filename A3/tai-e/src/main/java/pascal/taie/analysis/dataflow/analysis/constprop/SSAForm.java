@@ -0,0 +1,297 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.defuse.DefUseIndex;
+import pascal.taie.analysis.defuse.SSARenaming;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
+import pascal.taie.analysis.graph.cfg.Dominators;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A static single assignment (SSA) view of the int-capable variables
+ * (see {@link IntVarSlots}) of a method, built on top of its CFG
+ * without modifying the IR.
+ * <p>
+ * The phi functions and the reaching definitions are taken from the
+ * {@link SSARenaming} of the IR, which is shared with {@link DefUseIndex}.
+ * This view only renumbers them for sparse propagation: the entry node
+ * of the CFG defines names 0 .. (#slots - 1) for the initial values of
+ * the variables, each statement that assigns an int-capable variable
+ * defines one name, and each phi function of an int-capable variable
+ * defines one name. Every use of an int-capable variable in a statement,
+ * and every operand of a phi function, is resolved to the name of its
+ * unique reaching definition.
+ * <p>
+ * CFG nodes are numbered by {@link CFGNodeOrder#getReversePostorder}, and
+ * CFG edges are numbered so that the in-edges of each node are consecutive.
+ * Only the nodes that are reachable from the entry node are converted.
+ */
+final class SSAForm {
+
+    /**
+     * A phi function that merges the values of {@link #var}
+     * along the in-edges of {@link #node}.
+     */
+    static final class Phi {
+
+        final int node;
+
+        final Var var;
+
+        /**
+         * Name defined by this phi.
+         */
+        final int name;
+
+        /**
+         * Names of the operands, indexed by the position of the in-edges
+         * of {@link #node}, or -1 if the source of the edge is unreachable.
+         */
+        final int[] operands;
+
+        private Phi(int node, Var var, int name, int numberOfInEdges) {
+            this.node = node;
+            this.var = var;
+            this.name = name;
+            this.operands = new int[numberOfInEdges];
+        }
+    }
+
+    private static final Var[] NO_VARS = new Var[0];
+
+    private static final int[] NO_NAMES = new int[0];
+
+    final CFG<Stmt> cfg;
+
+    final CFGNodeOrder<Stmt> order;
+
+    private final Dominators<Stmt> dom;
+
+    final IntVarSlots slots;
+
+    /**
+     * Number of the entry node. The nodes that are reachable from the
+     * entry are exactly those whose numbers are not less than it.
+     */
+    final int entry;
+
+    /**
+     * Immediate dominator of each node, or -1 for unreachable nodes.
+     */
+    final int[] idom;
+
+    final List<Edge<Stmt>> edges = new ArrayList<>();
+
+    private final Map<Edge<Stmt>, Integer> edgeIds;
+
+    /**
+     * In-edges of node i are numbered from inEdgeStart[i]
+     * to (inEdgeStart[i + 1] - 1).
+     */
+    final int[] inEdgeStart;
+
+    /**
+     * Name defined by each node, or -1 if the node
+     * does not define any int-capable variable.
+     */
+    final int[] defName;
+
+    /**
+     * Int-capable variables used by each node, and the names of
+     * their reaching definitions.
+     */
+    final Var[][] useVars;
+
+    final int[][] useNames;
+
+    final List<List<Phi>> phis;
+
+    private int numberOfNames;
+
+    SSAForm(IR ir) {
+        DefUseIndex defUse = DefUseIndex.of(ir);
+        SSARenaming renaming = defUse.getSSARenaming();
+        this.cfg = renaming.getCFG();
+        this.order = CFGNodeOrder.of(cfg);
+        this.dom = Dominators.of(cfg);
+        this.slots = IntVarSlots.of(ir);
+        int n = order.size();
+        this.entry = order.getReversePostorder(cfg.getEntry());
+        this.idom = new int[n];
+        this.inEdgeStart = new int[n + 1];
+        this.edgeIds = Maps.newMap();
+        this.defName = new int[n];
+        this.useVars = new Var[n][];
+        this.useNames = new int[n][];
+        this.phis = new ArrayList<>(Collections.nCopies(n, List.of()));
+        numberEdges();
+        computeDominators();
+        convert(defUse, renaming);
+    }
+
+    int getNode(Stmt stmt) {
+        return order.getReversePostorder(stmt);
+    }
+
+    Stmt getStmt(int node) {
+        return order.getNodeOfReversePostorder(node);
+    }
+
+    boolean isReachable(int node) {
+        return node >= entry;
+    }
+
+    int getEdgeId(Edge<Stmt> edge) {
+        return edgeIds.get(edge);
+    }
+
+    int getNumberOfNames() {
+        return numberOfNames;
+    }
+
+    private void numberEdges() {
+        int n = order.size();
+        for (int node = 0; node < n; ++node) {
+            inEdgeStart[node] = edges.size();
+            for (Edge<Stmt> edge : cfg.getInEdgesOf(getStmt(node))) {
+                edgeIds.put(edge, edges.size());
+                edges.add(edge);
+            }
+        }
+        inEdgeStart[n] = edges.size();
+    }
+
+    /**
+     * Converts the immediate dominators of {@link #dom}
+     * to the numbering of the nodes of this form.
+     */
+    private void computeDominators() {
+        Arrays.fill(idom, -1);
+        for (int d = 0; d < dom.size(); ++d) {
+            int node = getNode(dom.getNode(d));
+            int dIdom = dom.getImmediateDominator(d);
+            idom[node] = dIdom == -1 ? node : getNode(dom.getNode(dIdom));
+        }
+    }
+
+    /**
+     * Renumbers the definitions, uses and phi functions of the int-capable
+     * variables in given renaming.
+     */
+    private void convert(DefUseIndex defUse, SSARenaming renaming) {
+        int n = order.size();
+        Arrays.fill(defName, -1);
+        numberOfNames = slots.size();
+        // names of the definitions (stmts and phis) of the renaming
+        int[] names = new int[renaming.getNumberOfStmts() +
+                renaming.getNumberOfPhis()];
+        for (int node = entry; node < n; ++node) {
+            Stmt stmt = getStmt(node);
+            for (int p : renaming.getPhis(stmt)) {
+                Var var = cfg.getIR().getVar(renaming.getPhiVar(p));
+                if (slots.getSlot(var) != -1) {
+                    Phi phi = new Phi(node, var, numberOfNames++,
+                            inEdgeStart[node + 1] - inEdgeStart[node]);
+                    names[renaming.getNumberOfStmts() + p] = phi.name;
+                    if (phis.get(node).isEmpty()) {
+                        phis.set(node, new ArrayList<>());
+                    }
+                    phis.get(node).add(phi);
+                }
+            }
+            if (getDef(stmt) != null) {
+                defName[node] = numberOfNames++;
+                names[stmt.getIndex()] = defName[node];
+            }
+        }
+        // operands of the phis, and uses of the stmts
+        for (int node = entry; node < n; ++node) {
+            Stmt stmt = getStmt(node);
+            int k = 0;
+            for (int p : renaming.getPhis(stmt)) {
+                int v = renaming.getPhiVar(p);
+                int slot = slots.getSlot(cfg.getIR().getVar(v));
+                if (slot == -1) {
+                    continue;
+                }
+                Phi phi = phis.get(node).get(k++);
+                int[] operands = renaming.getOperands(p);
+                for (int i = 0; i < operands.length; ++i) {
+                    Stmt source = edges.get(inEdgeStart[node] + i).getSource();
+                    phi.operands[i] = isReachable(getNode(source)) ?
+                            toName(names, operands[i], slot) : -1;
+                }
+            }
+            int[] useIndexes = defUse.getUseIndexes(stmt);
+            int[] useDefs = renaming.getUseNames(stmt);
+            Var[] vars = new Var[useIndexes.length];
+            int[] varNames = new int[useIndexes.length];
+            int size = 0;
+            for (int i = 0; i < useIndexes.length; ++i) {
+                Var var = cfg.getIR().getVar(useIndexes[i]);
+                int slot = slots.getSlot(var);
+                if (slot != -1) {
+                    vars[size] = var;
+                    varNames[size++] = toName(names, useDefs[i], slot);
+                }
+            }
+            useVars[node] = size == 0 ? NO_VARS : Arrays.copyOf(vars, size);
+            useNames[node] = size == 0 ? NO_NAMES : Arrays.copyOf(varNames, size);
+        }
+    }
+
+    /**
+     * @return the name of this form for given name of the renaming,
+     * where -1 denotes the initial value of the variable in given slot.
+     */
+    private static int toName(int[] names, int name, int slot) {
+        return name == -1 ? slot : names[name];
+    }
+
+    /**
+     * @return the int-capable variable defined by given statement,
+     * or null if the statement does not define such variable.
+     */
+    Var getDef(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var &&
+                slots.getSlot(var) != -1) {
+            return var;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck).
+ * <p>
+ * Instead of carrying a {@link CPFact} for every statement, this analysis
+ * works on the {@link SSAForm} of the method: a lattice value is kept for
+ * each SSA name, and values are propagated along def-use edges only.
+ * Meanwhile, CFG edges are marked executable on demand, so that branches
+ * of {@link If} and {@link SwitchStmt} that can never be taken are not
+ * propagated into. The work thus scales with the number of def-use edges
+ * rather than statements x variables.
+ * <p>
+ * The result is provided as a {@link DataflowResult} of {@link CPFact}s
+ * (the same shape as {@link ConstantPropagation}), whose facts are
+ * computed lazily from the values of SSA names when they are queried.
+ * The result also provides the executable edges and statements
+ * (see {@link ExecutableEdges}) found during propagation.
+ */
+public class SparseConstantPropagation extends MethodAnalysis {
+
+    public static final String ID = "sccp";
+
+    public SparseConstantPropagation(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        SSAForm ssa = new SSAForm(ir);
+        Propagator propagator = new Propagator(ssa);
+        propagator.propagate();
+        return new SparseResult(ssa, propagator);
+    }
+
+    /**
+     * Propagates values along the def-use edges of an {@link SSAForm}
+     * and tracks executable CFG edges.
+     */
+    private static class Propagator {
+
+        private final SSAForm ssa;
+
+        private final Value[] values;
+
+        /**
+         * Phi functions and statements using each name.
+         */
+        private final List<List<SSAForm.Phi>> phiUsers;
+
+        private final List<List<Integer>> stmtUsers;
+
+        private final BitSet executableEdges = new BitSet();
+
+        private final BitSet executableNodes = new BitSet();
+
+        private final Deque<Integer> edgeWorkList = new ArrayDeque<>();
+
+        private final Deque<Integer> nameWorkList = new ArrayDeque<>();
+
+        /**
+         * Fact holding the values of the operands of the statement
+         * being evaluated, and UNDEF for all other variables.
+         */
+        private final CPFact operands = new CPFact();
+
+        private Propagator(SSAForm ssa) {
+            this.ssa = ssa;
+            int numberOfNames = ssa.getNumberOfNames();
+            values = new Value[numberOfNames];
+            Arrays.fill(values, Value.getUndef());
+            for (Var param : ssa.cfg.getIR().getParams()) {
+                int slot = ssa.slots.getSlot(param);
+                if (slot != -1) {
+                    // names of the initial values are numbered by slots
+                    values[slot] = Value.getNAC();
+                }
+            }
+            phiUsers = new ArrayList<>(numberOfNames);
+            stmtUsers = new ArrayList<>(numberOfNames);
+            for (int name = 0; name < numberOfNames; ++name) {
+                phiUsers.add(new ArrayList<>(0));
+                stmtUsers.add(new ArrayList<>(0));
+            }
+            for (int node = ssa.entry; node < ssa.idom.length; ++node) {
+                for (int name : ssa.useNames[node]) {
+                    stmtUsers.get(name).add(node);
+                }
+                for (SSAForm.Phi phi : ssa.phis.get(node)) {
+                    for (int name : phi.operands) {
+                        if (name != -1) {
+                            phiUsers.get(name).add(phi);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void propagate() {
+            executableNodes.set(ssa.entry);
+            visitStmt(ssa.entry);
+            while (!edgeWorkList.isEmpty() || !nameWorkList.isEmpty()) {
+                while (!edgeWorkList.isEmpty()) {
+                    int edge = edgeWorkList.poll();
+                    if (executableEdges.get(edge)) {
+                        continue;
+                    }
+                    executableEdges.set(edge);
+                    int node = ssa.getNode(ssa.edges.get(edge).getTarget());
+                    for (SSAForm.Phi phi : ssa.phis.get(node)) {
+                        visitPhi(phi);
+                    }
+                    if (!executableNodes.get(node)) {
+                        executableNodes.set(node);
+                        visitStmt(node);
+                    }
+                }
+                while (!nameWorkList.isEmpty()) {
+                    int name = nameWorkList.poll();
+                    for (SSAForm.Phi phi : phiUsers.get(name)) {
+                        if (executableNodes.get(phi.node)) {
+                            visitPhi(phi);
+                        }
+                    }
+                    for (int node : stmtUsers.get(name)) {
+                        if (executableNodes.get(node)) {
+                            visitStmt(node);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void setValue(int name, Value value) {
+            if (!values[name].equals(value)) {
+                values[name] = value;
+                nameWorkList.add(name);
+            }
+        }
+
+        private void visitPhi(SSAForm.Phi phi) {
+            Value value = Value.getUndef();
+            int start = ssa.inEdgeStart[phi.node];
+            for (int i = 0; i < phi.operands.length; ++i) {
+                if (phi.operands[i] != -1 && executableEdges.get(start + i)) {
+                    value = meetValue(value, values[phi.operands[i]]);
+                }
+            }
+            setValue(phi.name, value);
+        }
+
+        private void visitStmt(int node) {
+            Stmt stmt = ssa.getStmt(node);
+            Var[] vars = ssa.useVars[node];
+            int[] names = ssa.useNames[node];
+            for (int i = 0; i < vars.length; ++i) {
+                operands.update(vars[i], values[names[i]]);
+            }
+            if (ssa.defName[node] != -1) {
+                Value value = ConstantPropagation.evaluate(
+                        ((DefinitionStmt<?, ?>) stmt).getRValue(), operands);
+                setValue(ssa.defName[node], value);
+            }
+            if (stmt instanceof If ifStmt) {
+                Value cond = ConstantPropagation.evaluate(
+                        ifStmt.getCondition(), operands);
+                for (Edge<Stmt> edge : ssa.cfg.getOutEdgesOf(stmt)) {
+                    if (isFeasible(edge, cond)) {
+                        addEdge(edge);
+                    }
+                }
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                Value value = operands.get(switchStmt.getVar());
+                for (Edge<Stmt> edge : ssa.cfg.getOutEdgesOf(stmt)) {
+                    if (isFeasible(edge, switchStmt, value)) {
+                        addEdge(edge);
+                    }
+                }
+            } else {
+                ssa.cfg.getOutEdgesOf(stmt).forEach(this::addEdge);
+            }
+            for (Var var : vars) {
+                operands.update(var, Value.getUndef());
+            }
+        }
+
+        private void addEdge(Edge<Stmt> edge) {
+            int id = ssa.getEdgeId(edge);
+            if (!executableEdges.get(id)) {
+                edgeWorkList.add(id);
+            }
+        }
+
+        private static boolean isFeasible(Edge<Stmt> edge, Value cond) {
+            return switch (edge.getKind()) {
+                case IF_TRUE -> cond.isNAC() ||
+                        (cond.isConstant() && cond.getConstant() != 0);
+                case IF_FALSE -> cond.isNAC() ||
+                        (cond.isConstant() && cond.getConstant() == 0);
+                default -> true;
+            };
+        }
+
+        private static boolean isFeasible(
+                Edge<Stmt> edge, SwitchStmt switchStmt, Value value) {
+            return switch (edge.getKind()) {
+                case SWITCH_CASE -> value.isNAC() ||
+                        (value.isConstant() &&
+                                edge.getCaseValue() == value.getConstant());
+                case SWITCH_DEFAULT -> value.isNAC() ||
+                        (value.isConstant() &&
+                                !switchStmt.getCaseValues().contains(value.getConstant()));
+                default -> true;
+            };
+        }
+
+        private static Value meetValue(Value v1, Value v2) {
+            if (v1.isUndef()) {
+                return v2;
+            } else if (v2.isUndef() || v1.equals(v2)) {
+                return v1;
+            } else {
+                return Value.getNAC();
+            }
+        }
+    }
+
+    /**
+     * Data-flow result whose facts are computed from the values of SSA
+     * names on demand. The OUT fact of a node is derived from the OUT fact
+     * of its immediate dominator, by applying the phi functions and the
+     * definition of the node.
+     */
+    private static class SparseResult extends DataflowResult<Stmt, CPFact>
+            implements ExecutableEdges {
+
+        private final SSAForm ssa;
+
+        private final Value[] values;
+
+        private final BitSet executableEdges;
+
+        private final BitSet executableNodes;
+
+        private final CPFact[] inFacts;
+
+        private final CPFact[] outFacts;
+
+        /**
+         * Fact of the nodes that are unreachable from the entry, which is
+         * shared so that repeated queries return the same object.
+         */
+        private final CPFact unreachableFact = new CPFact();
+
+        private SparseResult(SSAForm ssa, Propagator propagator) {
+            this.ssa = ssa;
+            this.values = propagator.values;
+            this.executableEdges = propagator.executableEdges;
+            this.executableNodes = propagator.executableNodes;
+            this.inFacts = new CPFact[ssa.idom.length];
+            this.outFacts = new CPFact[ssa.idom.length];
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            int node = ssa.getNode(stmt);
+            if (!ssa.isReachable(node)) {
+                return unreachableFact;
+            }
+            compute(node);
+            return inFacts[node];
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            int node = ssa.getNode(stmt);
+            if (!ssa.isReachable(node)) {
+                return unreachableFact;
+            }
+            compute(node);
+            return outFacts[node];
+        }
+
+        @Override
+        public boolean isExecutable(Edge<Stmt> edge) {
+            return executableEdges.get(ssa.getEdgeId(edge));
+        }
+
+        @Override
+        public boolean isExecutable(Stmt stmt) {
+            return executableNodes.get(ssa.getNode(stmt));
+        }
+
+        @Override
+        public void setInFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Computes the facts of given node and its dominators,
+         * from the nearest dominator whose facts are available.
+         * The facts are filled under the lock of this result, so that
+         * they are safely published to the threads that query them.
+         */
+        private synchronized void compute(int node) {
+            Deque<Integer> path = new ArrayDeque<>();
+            for (int n = node; outFacts[n] == null; n = ssa.idom[n]) {
+                path.push(n);
+                if (n == ssa.entry) {
+                    break;
+                }
+            }
+            while (!path.isEmpty()) {
+                int n = path.pop();
+                CPFact in;
+                if (n == ssa.entry) {
+                    in = new CPFact();
+                    inFacts[n] = in;
+                    CPFact out = new CPFact();
+                    for (int slot = 0; slot < ssa.slots.size(); ++slot) {
+                        out.update(ssa.slots.getVar(slot), values[slot]);
+                    }
+                    outFacts[n] = out;
+                    continue;
+                }
+                in = outFacts[ssa.idom[n]].copy();
+                for (SSAForm.Phi phi : ssa.phis.get(n)) {
+                    in.update(phi.var, values[phi.name]);
+                }
+                inFacts[n] = in;
+                CPFact out = in.copy();
+                if (ssa.defName[n] != -1) {
+                    out.update(ssa.getDef(ssa.getStmt(n)), values[ssa.defName[n]]);
+                }
+                outFacts[n] = out;
+            }
+        }
+    }
+}
@@ -33,9 +33,24 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> outFacts;
+
+    public DataflowResult() {
+        this(new LinkedHashMap<>(), new LinkedHashMap<>());
+    }
+
+    /**
+     * Creates a result which keeps the facts in given maps. Subclasses
+     * which keep the facts elsewhere (and override all accessors) can
+     * pass empty immutable maps, e.g., {@link Map#of()}, to avoid
+     * allocating the maps.
+     */
+    protected DataflowResult(Map<Node, Fact> inFacts, Map<Node, Fact> outFacts) {
+        this.inFacts = inFacts;
+        this.outFacts = outFacts;
+    }
 
     /**
      * @return the flowing-in fact of given node.
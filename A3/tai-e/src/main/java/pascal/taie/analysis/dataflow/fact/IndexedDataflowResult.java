@@ -0,0 +1,121 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A {@link DataflowResult} for nodes that are {@link Indexable} with dense
+ * indexes, e.g., the {@link pascal.taie.ir.stmt.Stmt}s of a method.
+ * The facts are kept in arrays indexed by {@link Indexable#getIndex()},
+ * so that they are obtained without hashing the nodes.
+ * The arrays grow on demand when a node with a larger index is set.
+ * The node of each index is also kept, so that querying a node which
+ * does not belong to this result (e.g., a stmt of another method)
+ * gives null, as {@link DataflowResult} does.
+ * <p>
+ * This class does not allocate the maps of {@link DataflowResult}.
+ *
+ * @param <Node> type of nodes, which must implement {@link Indexable}
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * The node of each index whose facts have been set.
+     */
+    private Object[] nodes;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    /**
+     * @param capacity expected number of nodes, i.e., the largest
+     *                 index of the nodes plus one.
+     */
+    public IndexedDataflowResult(int capacity) {
+        super(Map.of(), Map.of());
+        nodes = new Object[capacity];
+        inFacts = new Object[capacity];
+        outFacts = new Object[capacity];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return get(inFacts, node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        int index = bind(node);
+        inFacts[index] = fact;
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return get(outFacts, node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        int index = bind(node);
+        outFacts[index] = fact;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact get(Object[] facts, Node node) {
+        int index = ((Indexable) node).getIndex();
+        return index < nodes.length && nodes[index] == node ?
+                (Fact) facts[index] : null;
+    }
+
+    /**
+     * Associates given node with its index, and grows the arrays if needed,
+     * thus the callers should access the arrays after calling this method.
+     *
+     * @return the index of the node.
+     * @throws IllegalArgumentException if another node of this result
+     *                                  has the same index.
+     */
+    private int bind(Node node) {
+        int index = ((Indexable) node).getIndex();
+        if (index >= nodes.length) {
+            int capacity = Math.max(index + 1, nodes.length * 2);
+            nodes = Arrays.copyOf(nodes, capacity);
+            inFacts = Arrays.copyOf(inFacts, capacity);
+            outFacts = Arrays.copyOf(outFacts, capacity);
+        }
+        if (nodes[index] == null) {
+            nodes[index] = node;
+        } else if (nodes[index] != node) {
+            throw new IllegalArgumentException(node + " and " + nodes[index] +
+                    " have the same index " + index);
+        }
+        return index;
+    }
+}
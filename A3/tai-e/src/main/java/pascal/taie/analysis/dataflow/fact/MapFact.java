@@ -115,6 +115,13 @@ public class MapFact<K, V> {
         return map.keySet();
     }
 
+    /**
+     * @return the number of keys contained in this fact.
+     */
+    public int size() {
+        return map.size();
+    }
+
     /**
      * @return all entries (key-value mappings) in this fact.
      */
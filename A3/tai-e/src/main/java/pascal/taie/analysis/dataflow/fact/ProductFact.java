@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Arrays;
+
+/**
+ * Data-flow fact of the product of several data-flow analyses, which
+ * consists of one fact of each component analysis.
+ * The component facts are mutable objects owned by this fact,
+ * and are met and transferred in place by the component analyses.
+ */
+public class ProductFact {
+
+    private final Object[] components;
+
+    public ProductFact(Object[] components) {
+        this.components = components;
+    }
+
+    /**
+     * @return the number of component facts.
+     */
+    public int size() {
+        return components.length;
+    }
+
+    /**
+     * @return the fact of the i-th component analysis.
+     */
+    public Object get(int i) {
+        return components[i];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductFact that)) {
+            return false;
+        }
+        return Arrays.equals(components, that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+/**
+ * View of the facts of one component analysis in the result of
+ * a product of data-flow analyses, see {@link ProductFact}.
+ * The view reads through the product result, thus it does not copy
+ * any facts, and it is read-only.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of the facts of the component analysis
+ */
+public class ProjectedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final NodeResult<Node, ProductFact> product;
+
+    private final int index;
+
+    /**
+     * @param product result of the product analysis
+     * @param index   index of the component analysis in the product
+     */
+    public ProjectedDataflowResult(NodeResult<Node, ProductFact> product, int index) {
+        this.product = product;
+        this.index = index;
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return project(product.getInFact(node));
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return project(product.getOutFact(node));
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact project(ProductFact fact) {
+        return fact == null ? null : (Fact) fact.get(index);
+    }
+}
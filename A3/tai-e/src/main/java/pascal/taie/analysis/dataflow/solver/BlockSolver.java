@@ -0,0 +1,390 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.BlockTransfer;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlocks;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Work-list solver which iterates over the basic blocks of the CFG
+ * (see {@link BasicBlocks}) instead of single nodes.
+ * <p>
+ * During solving, only the IN fact of the first node and the OUT fact of
+ * the last node of each block are kept, and the fixpoint iterates over
+ * the blocks. If the analysis composes the transfers of the nodes of a
+ * block (see {@link DataflowAnalysis#composeTransfer}, e.g., the gen/kill
+ * sets of live variables), each block is composed once and transferred
+ * by a single composed transfer. Otherwise, a block is transferred by
+ * applying the transfers of its nodes one after another on two temporary
+ * facts, which are reset by {@link DataflowAnalysis#resetFact} and reused
+ * for all blocks; this saves the meets and work-list operations of the
+ * nodes inside the blocks, but not their transfers.
+ * The facts of the nodes inside a block are not stored, but rebuilt
+ * from the kept facts when any of them is queried, see {@link BlockResult}.
+ */
+class BlockSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    BlockSolver(DataflowAnalysis<Node, Fact> analysis,
+                SolverProfile<Node> profile) {
+        super(analysis, profile);
+    }
+
+    @Override
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        return new BlockResult<>(analysis, cfg, super.solve(cfg));
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BasicBlocks<Node> blocks = BasicBlocks.of(cfg);
+        for (int b = 0; b < blocks.size(); ++b) {
+            List<Node> block = blocks.getBlock(b);
+            Node first = block.get(0);
+            Node last = block.get(block.size() - 1);
+            if (cfg.isEntry(first)) {
+                result.setOutFact(first, analysis.newBoundaryFact(cfg));
+            } else if (cfg.isExit(first)) {
+                result.setInFact(first, analysis.newInitialFact(cfg));
+            } else {
+                result.setInFact(first, analysis.newInitialFact(cfg));
+                result.setOutFact(last, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BasicBlocks<Node> blocks = BasicBlocks.of(cfg);
+        for (int b = 0; b < blocks.size(); ++b) {
+            List<Node> block = blocks.getBlock(b);
+            Node first = block.get(0);
+            Node last = block.get(block.size() - 1);
+            if (cfg.isEntry(first)) {
+                result.setOutFact(first, analysis.newInitialFact(cfg));
+            } else if (cfg.isExit(first)) {
+                result.setInFact(first, analysis.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(first, analysis.newInitialFact(cfg));
+                result.setOutFact(last, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BasicBlocks<Node> blocks = BasicBlocks.of(cfg);
+        BlockWorkList workList = new BlockWorkList(blocks.size(), true);
+        List<BlockTransfer<Fact>> transfers = composeTransfers(cfg, blocks);
+        Fact[] temps = newTemps();
+        while (!workList.isEmpty()) {
+            int number = workList.poll();
+            List<Node> block = blocks.getBlock(number);
+            Node first = block.get(0);
+            Fact in = result.getInFact(first);
+            for (Node pred : cfg.getPredsOf(first)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            int last = block.size() - 1;
+            Node lastNode = block.get(last);
+            boolean changed;
+            BlockTransfer<Fact> transfer = transfers.get(number);
+            if (transfer != null) {
+                changed = transfer.transfer(in, result.getOutFact(lastNode));
+            } else {
+                for (int i = 0; i < last; ++i) {
+                    Fact out = nextTemp(temps, i, cfg);
+                    analysis.transferNode(block.get(i), in, out);
+                    in = out;
+                }
+                changed = analysis.transferNode(lastNode, in, result.getOutFact(lastNode));
+            }
+            if (changed) {
+                for (Node succ : cfg.getSuccsOf(lastNode)) {
+                    workList.add(blocks.getBlockOf(succ));
+                }
+            }
+        }
+        if (profile != null) {
+            profile.updateWorkListSize(workList.maxSize);
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BasicBlocks<Node> blocks = BasicBlocks.of(cfg);
+        BlockWorkList workList = new BlockWorkList(blocks.size(), false);
+        List<BlockTransfer<Fact>> transfers = composeTransfers(cfg, blocks);
+        Fact[] temps = newTemps();
+        while (!workList.isEmpty()) {
+            int number = workList.poll();
+            List<Node> block = blocks.getBlock(number);
+            Node last = block.get(block.size() - 1);
+            Fact out = result.getOutFact(last);
+            for (Node succ : cfg.getSuccsOf(last)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            Node first = block.get(0);
+            boolean changed;
+            BlockTransfer<Fact> transfer = transfers.get(number);
+            if (transfer != null) {
+                changed = transfer.transfer(result.getInFact(first), out);
+            } else {
+                for (int i = block.size() - 1; i > 0; --i) {
+                    Fact in = nextTemp(temps, i, cfg);
+                    analysis.transferNode(block.get(i), in, out);
+                    out = in;
+                }
+                changed = analysis.transferNode(first, result.getInFact(first), out);
+            }
+            if (changed) {
+                for (Node pred : cfg.getPredsOf(first)) {
+                    workList.add(blocks.getBlockOf(pred));
+                }
+            }
+        }
+        if (profile != null) {
+            profile.updateWorkListSize(workList.maxSize);
+        }
+    }
+
+    /**
+     * @return the composed transfers of the blocks, indexed by block
+     * numbers, where the transfer of a block is null if the block has
+     * a single node or the analysis does not compose its transfers.
+     */
+    private List<BlockTransfer<Fact>> composeTransfers(
+            CFG<Node> cfg, BasicBlocks<Node> blocks) {
+        List<BlockTransfer<Fact>> transfers = new ArrayList<>(blocks.size());
+        for (int b = 0; b < blocks.size(); ++b) {
+            List<Node> block = blocks.getBlock(b);
+            transfers.add(block.size() > 1 ?
+                    analysis.composeTransfer(block, cfg) : null);
+        }
+        return transfers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact[] newTemps() {
+        return (Fact[]) new Object[2];
+    }
+
+    /**
+     * @return the temporary fact for the i-th node of a block, reset to
+     * the initial fact. The two temporary facts are used alternately,
+     * so that the fact returned for the (i - 1)-th (resp. (i + 1)-th)
+     * node of the block is not reset.
+     */
+    private Fact nextTemp(Fact[] temps, int i, CFG<Node> cfg) {
+        Fact temp = temps[i & 1];
+        temp = temp == null ? analysis.newInitialFact(cfg) :
+                analysis.resetFact(temp, cfg);
+        temps[i & 1] = temp;
+        return temp;
+    }
+
+    /**
+     * Work list of block numbers, which polls the queued block that comes
+     * first in reverse postorder (resp. last for backward analyses).
+     * Initially, all blocks are queued.
+     */
+    private static class BlockWorkList {
+
+        private final Queue<Integer> queue;
+
+        private final BitSet queued;
+
+        /**
+         * The maximum number of blocks which have been queued
+         * at the same time.
+         */
+        private int maxSize = 0;
+
+        private BlockWorkList(int size, boolean isForward) {
+            Comparator<Integer> comparator = isForward ?
+                    Comparator.naturalOrder() : Comparator.reverseOrder();
+            queue = new PriorityQueue<>(Math.max(size, 1), comparator);
+            queued = new BitSet(size);
+            for (int b = 0; b < size; ++b) {
+                add(b);
+            }
+        }
+
+        private void add(int block) {
+            if (!queued.get(block)) {
+                queued.set(block);
+                queue.add(block);
+                maxSize = Math.max(maxSize, queue.size());
+            }
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private int poll() {
+            int block = queue.remove();
+            queued.clear(block);
+            return block;
+        }
+    }
+
+    /**
+     * Sparse data-flow result of {@link BlockSolver}, which only stores
+     * the facts kept by the solver, i.e., the facts at the boundaries of
+     * the blocks (which include all join points and loop heads).
+     * <p>
+     * The facts inside a block are rebuilt by replaying the transfers of
+     * the block from its stored boundary fact when any of them is queried.
+     * Only the rebuilt facts of the {@link #CACHED_BLOCKS} most recently
+     * queried blocks are retained, so that the facts of each method
+     * take memory in proportion to its number of blocks, not stmts.
+     */
+    private static class BlockResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+        /**
+         * Maximum number of blocks whose rebuilt facts are retained.
+         */
+        private static final int CACHED_BLOCKS = 16;
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private final CFG<Node> cfg;
+
+        private final BasicBlocks<Node> blocks;
+
+        /**
+         * Facts kept by the solver.
+         */
+        private final DataflowResult<Node, Fact> facts;
+
+        /**
+         * Map from block number to the rebuilt facts of the block,
+         * in access order. For a block of n nodes, the rebuilt facts
+         * are the n - 1 facts between its consecutive nodes, i.e.,
+         * the i-th fact is the OUT fact of the i-th node, which is also
+         * the IN fact of the (i + 1)-th node.
+         */
+        private final Map<Integer, List<Fact>> rebuilt =
+                new LinkedHashMap<>(CACHED_BLOCKS, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, List<Fact>> eldest) {
+                        return size() > CACHED_BLOCKS;
+                    }
+                };
+
+        private BlockResult(DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg,
+                            DataflowResult<Node, Fact> facts) {
+            this.analysis = analysis;
+            this.cfg = cfg;
+            this.blocks = BasicBlocks.of(cfg);
+            this.facts = facts;
+        }
+
+        @Override
+        public Fact getInFact(Node node) {
+            int index = blocks.getIndexInBlock(node);
+            if (index == -1) {
+                return null;
+            }
+            if (index == 0) {
+                return facts.getInFact(node);
+            }
+            return rebuild(blocks.getBlockOf(node)).get(index - 1);
+        }
+
+        @Override
+        public Fact getOutFact(Node node) {
+            int number = blocks.getBlockOf(node);
+            if (number == -1) {
+                return null;
+            }
+            int index = blocks.getIndexInBlock(node);
+            if (index == blocks.getBlock(number).size() - 1) {
+                return facts.getOutFact(node);
+            }
+            return rebuild(number).get(index);
+        }
+
+        @Override
+        public void setInFact(Node node, Fact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutFact(Node node, Fact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return the rebuilt facts of the block with given number.
+         */
+        private synchronized List<Fact> rebuild(int number) {
+            List<Fact> result = rebuilt.get(number);
+            if (result != null) {
+                return result;
+            }
+            List<Node> block = blocks.getBlock(number);
+            int last = block.size() - 1;
+            Fact[] between = newArray(last);
+            if (analysis.isForward()) {
+                Fact in = facts.getInFact(block.get(0));
+                for (int i = 0; i < last; ++i) {
+                    Fact out = analysis.newInitialFact(cfg);
+                    analysis.transferNode(block.get(i), in, out);
+                    between[i] = out;
+                    in = out;
+                }
+            } else {
+                Fact out = facts.getOutFact(block.get(last));
+                for (int i = last; i > 0; --i) {
+                    Fact in = analysis.newInitialFact(cfg);
+                    analysis.transferNode(block.get(i), in, out);
+                    between[i - 1] = in;
+                    out = in;
+                }
+            }
+            result = Arrays.asList(between);
+            rebuilt.put(number, result);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <Fact> Fact[] newArray(int length) {
+            return (Fact[]) new Object[length];
+        }
+    }
+}
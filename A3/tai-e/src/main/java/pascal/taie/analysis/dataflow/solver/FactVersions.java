@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Version stamps of the facts that flow into the nodes of a CFG, so that
+ * a solver only meets the facts which have changed since they were last
+ * met into a node.
+ * <p>
+ * Each node has a version of the fact it propagates (OUT fact in forward
+ * analyses, and IN fact in backward analyses), which is increased whenever
+ * the transfer function changes the fact, and each edge remembers the
+ * version of the fact of its source that was last met along the edge.
+ * As solvers accumulate the meets in the facts of the target nodes,
+ * and meets are idempotent, meeting an unchanged fact again has no effect,
+ * and thus can be skipped. This saves most meets at the join nodes with
+ * many predecessors, e.g., switch targets and exception handlers.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class FactVersions<Node> {
+
+    private final CFGNodeOrder<Node> order;
+
+    /**
+     * Version of the fact propagated by each node.
+     */
+    private final int[] versions;
+
+    /**
+     * Sources of the edges flowing into node i are
+     * sources[sourceStart[i]] .. sources[sourceStart[i + 1] - 1].
+     */
+    private final int[] sourceStart;
+
+    private final int[] sources;
+
+    /**
+     * Version of the fact of the source that was last met along each edge.
+     */
+    private final int[] merged;
+
+    /**
+     * @param isForward if true, facts flow from predecessors to successors,
+     *                  otherwise from successors to predecessors.
+     */
+    FactVersions(CFG<Node> cfg, CFGNodeOrder<Node> order, boolean isForward) {
+        this.order = order;
+        int n = order.size();
+        versions = new int[n];
+        sourceStart = new int[n + 1];
+        int[] edges = new int[Math.max(16, n)];
+        int size = 0;
+        for (int i = 0; i < n; ++i) {
+            sourceStart[i] = size;
+            Node node = order.getNodeOfReversePostorder(i);
+            for (Node source : isForward ?
+                    cfg.getPredsOf(node) : cfg.getSuccsOf(node)) {
+                if (size == edges.length) {
+                    edges = Arrays.copyOf(edges, size * 2);
+                }
+                edges[size++] = order.getReversePostorder(source);
+            }
+        }
+        sourceStart[n] = size;
+        sources = Arrays.copyOf(edges, size);
+        merged = new int[size];
+        // no facts have been met yet
+        Arrays.fill(merged, -1);
+    }
+
+    /**
+     * Meets the facts of the sources of the edges flowing into given node,
+     * which have changed since they were last met, into target fact.
+     *
+     * @param factOf returns the fact propagated by a node
+     */
+    <Fact> void meetChanged(Node node, Fact target,
+                            Function<Node, Fact> factOf,
+                            DataflowAnalysis<Node, Fact> analysis) {
+        int number = order.getReversePostorder(node);
+        for (int i = sourceStart[number]; i < sourceStart[number + 1]; ++i) {
+            int source = sources[i];
+            if (merged[i] != versions[source]) {
+                merged[i] = versions[source];
+                analysis.meetInto(factOf.apply(
+                        order.getNodeOfReversePostorder(source)), target);
+            }
+        }
+    }
+
+    /**
+     * Marks that the fact propagated by given node has changed.
+     */
+    void changed(Node node) {
+        ++versions[order.getReversePostorder(node)];
+    }
+}
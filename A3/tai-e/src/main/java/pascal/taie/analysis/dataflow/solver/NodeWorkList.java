@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
+
+import java.util.BitSet;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Work list of CFG nodes, which always polls the queued node that comes
+ * first in the order of the analysis direction: reverse postorder for
+ * forward analyses, and postorder for backward analyses. Thus (for
+ * reducible CFGs) a node is processed after all its non-back-edge
+ * predecessors (resp. successors in backward analyses).
+ * Each node is queued at most once at a time.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class NodeWorkList<Node> {
+
+    private final CFGNodeOrder<Node> order;
+
+    private final boolean isForward;
+
+    private final Queue<Integer> queue = new PriorityQueue<>();
+
+    /**
+     * Numbers of the nodes currently in {@link #queue}.
+     */
+    private final BitSet queued;
+
+    /**
+     * The maximum number of nodes which have been queued at the same time.
+     */
+    private int maxSize = 0;
+
+    /**
+     * @param isForward if true, the nodes are polled in reverse postorder,
+     *                  otherwise they are polled in postorder.
+     */
+    NodeWorkList(CFGNodeOrder<Node> order, boolean isForward) {
+        this.order = order;
+        this.isForward = isForward;
+        this.queued = new BitSet(order.size());
+    }
+
+    /**
+     * Adds all nodes of the CFG to this work list.
+     */
+    void addAll() {
+        for (int i = 0; i < order.size(); ++i) {
+            if (!queued.get(i)) {
+                queued.set(i);
+                queue.add(i);
+            }
+        }
+        maxSize = Math.max(maxSize, queue.size());
+    }
+
+    /**
+     * Adds given node to this work list if it is not queued yet.
+     */
+    void add(Node node) {
+        int number = isForward ?
+                order.getReversePostorder(node) : order.getPostorder(node);
+        if (!queued.get(number)) {
+            queued.set(number);
+            queue.add(number);
+            maxSize = Math.max(maxSize, queue.size());
+        }
+    }
+
+    /**
+     * @return the maximum number of nodes which have been queued
+     * at the same time.
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Removes and returns the queued node that comes first in the order.
+     */
+    Node poll() {
+        int number = queue.remove();
+        queued.clear(number);
+        return isForward ?
+                order.getNodeOfReversePostorder(number) :
+                order.getNodeOfPostorder(number);
+    }
+}
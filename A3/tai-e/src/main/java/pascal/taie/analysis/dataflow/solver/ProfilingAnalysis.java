@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.BlockTransfer;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DelegatingDataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.List;
+
+/**
+ * Data-flow analysis which delegates to another analysis, and records
+ * the transfers and meets performed by the solver in a {@link SolverProfile}.
+ * Solvers only use this wrapper when they are profiled, so that
+ * unprofiled solving pays nothing for the profiling.
+ */
+class ProfilingAnalysis<Node, Fact> extends DelegatingDataflowAnalysis<Node, Fact> {
+
+    private final SolverProfile<Node> profile;
+
+    ProfilingAnalysis(DataflowAnalysis<Node, Fact> analysis,
+                      SolverProfile<Node> profile) {
+        super(analysis);
+        this.profile = profile;
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        profile.onMeet();
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        profile.onTransfer(node);
+        return analysis.transferNode(node, in, out);
+    }
+
+    /**
+     * Each transfer of a composed block transfer is recorded as
+     * one transfer of the first node of the block.
+     */
+    @Override
+    public BlockTransfer<Fact> composeTransfer(List<Node> block, CFG<Node> cfg) {
+        BlockTransfer<Fact> transfer = analysis.composeTransfer(block, cfg);
+        if (transfer == null) {
+            return null;
+        }
+        Node first = block.get(0);
+        return (in, out) -> {
+            profile.onTransfer(first);
+            return transfer.transfer(in, out);
+        };
+    }
+}
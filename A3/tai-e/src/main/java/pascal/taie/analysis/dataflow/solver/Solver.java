@@ -24,7 +24,10 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +40,24 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Profile of the solving, or null if this solver is not profiled.
+     */
+    protected final SolverProfile<Node> profile;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
-        this.analysis = analysis;
+        this(analysis, null);
+    }
+
+    /**
+     * @param profile if not null, the transfers and meets of the analysis
+     *                are recorded in this profile.
+     */
+    protected Solver(DataflowAnalysis<Node, Fact> analysis,
+                     SolverProfile<Node> profile) {
+        this.analysis = profile == null ? analysis :
+                new ProfilingAnalysis<>(analysis, profile);
+        this.profile = profile;
     }
 
     /**
@@ -46,7 +65,46 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return new WorkListSolver<>(analysis, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind "worklist" (or null) for {@link WorkListSolver},
+     *             "block" for {@link BlockSolver},
+     *             or "wto" for {@link WTOSolver}
+     * @throws ConfigException if the kind is unknown
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        return makeSolver(analysis, kind, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis, which records the profile of its solving.
+     * As the profile is filled during solving, the returned solver
+     * should be used to solve one CFG only.
+     *
+     * @see #makeSolver(DataflowAnalysis, String)
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind,
+            SolverProfile<Node> profile) {
+        if (profile != null) {
+            profile.setSolver(kind == null ? "worklist" : kind);
+        }
+        if (kind == null || kind.equals("worklist")) {
+            return new WorkListSolver<>(analysis, profile);
+        } else if (kind.equals("block")) {
+            return new BlockSolver<>(analysis, profile);
+        } else if (kind.equals("wto")) {
+            return new WTOSolver<>(analysis, profile);
+        } else {
+            throw new ConfigException("Unknown solver: " + kind);
+        }
     }
 
     /**
@@ -56,18 +114,36 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        long start = profile == null ? 0 : System.nanoTime();
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        if (profile != null) {
+            profile.finish(cfg, result, System.nanoTime() - start);
+        }
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. If the nodes are
+     * {@link Indexable} (e.g., stmts), the facts are indexed by the nodes.
+     */
+    private static <Node, Fact> DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Indexable entry &&
+                cfg.getExit() instanceof Indexable exit) {
+            // the entry and exit of a CFG of stmts take the largest indexes
+            return new IndexedDataflowResult<>(
+                    Math.max(entry.getIndex(), exit.getIndex()) + 1);
+        }
+        return new DataflowResult<>();
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -83,11 +159,11 @@ public abstract class Solver<Node, Fact> {
                 result.setOutFact(n, analysis.newBoundaryFact(cfg) );
             }
             else if(cfg.isExit(n) ) {
-                result.setInFact(n, analysis.newInitialFact() );
+                result.setInFact(n, analysis.newInitialFact(cfg) );
             }
             else {
-                result.setInFact(n, analysis.newInitialFact() );
-                result.setOutFact(n, analysis.newInitialFact() );
+                result.setInFact(n, analysis.newInitialFact(cfg) );
+                result.setOutFact(n, analysis.newInitialFact(cfg) );
             }
         }
     }
@@ -96,14 +172,14 @@ public abstract class Solver<Node, Fact> {
         // done - finish me
         for(Node n : cfg) {
             if(cfg.isEntry(n) ) {
-                result.setOutFact(n, analysis.newInitialFact());
+                result.setOutFact(n, analysis.newInitialFact(cfg));
             }
             else if(cfg.isExit(n) ) {
                 result.setInFact(n, analysis.newBoundaryFact(cfg));
             }
             else {
-                result.setInFact(n, analysis.newInitialFact());
-                result.setOutFact(n, analysis.newInitialFact());
+                result.setInFact(n, analysis.newInitialFact(cfg));
+                result.setOutFact(n, analysis.newInitialFact(cfg));
 
             }
         }
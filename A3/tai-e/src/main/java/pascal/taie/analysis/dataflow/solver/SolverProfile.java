@@ -0,0 +1,221 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profile of solving a data-flow problem on one CFG, which records how
+ * the solver converged: the number of node transfers (in total and per
+ * node), the number of meets, the high-water mark of the work list,
+ * the total size of the facts in the result, and the wall time.
+ * <p>
+ * A profile is filled by a solver created by
+ * {@link Solver#makeSolver(pascal.taie.analysis.dataflow.analysis.DataflowAnalysis,
+ * String, SolverProfile)}, which must be used for solving one CFG only.
+ * For {@link BlockSolver}, the transfers replayed when the facts inside
+ * blocks are queried from its result are recorded as well, while the
+ * fact size covers only the facts at block boundaries, which are the
+ * only facts it keeps; thus the numbers should be read together with
+ * the solver that produced them (see {@link #getSolver()}).
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class SolverProfile<Node> {
+
+    /**
+     * Map from node to the number of times it has been transferred,
+     * in the order in which the nodes are transferred first.
+     */
+    private final Map<Node, Integer> nodeTransfers = new LinkedHashMap<>();
+
+    private String solver = "worklist";
+
+    private long transfers = 0;
+
+    private long meets = 0;
+
+    private int maxWorkListSize = 0;
+
+    private int nodes = 0;
+
+    private int facts = 0;
+
+    private long factSize = 0;
+
+    private long elapsedTime = 0;
+
+    /**
+     * @return the key of the profiles of given analysis in the result
+     * holder of {@link pascal.taie.ir.IR}.
+     */
+    public static String getKey(String analysisId) {
+        return "solver-profile:" + analysisId;
+    }
+
+    void setSolver(String solver) {
+        this.solver = solver;
+    }
+
+    void onTransfer(Node node) {
+        ++transfers;
+        nodeTransfers.merge(node, 1, Integer::sum);
+    }
+
+    void onMeet() {
+        ++meets;
+    }
+
+    void updateWorkListSize(int size) {
+        maxWorkListSize = Math.max(maxWorkListSize, size);
+    }
+
+    /**
+     * Records the result of the solving and the time it took.
+     */
+    <Fact> void finish(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                       long elapsedTime) {
+        this.elapsedTime = elapsedTime;
+        for (Node node : cfg) {
+            ++nodes;
+            measure(result.getInFact(node));
+            measure(result.getOutFact(node));
+        }
+    }
+
+    private void measure(Object fact) {
+        if (fact != null) {
+            ++facts;
+            factSize += sizeOf(fact);
+        }
+    }
+
+    /**
+     * @return the number of elements in given fact, i.e., the number of
+     * elements of a {@link SetFact} (including {@link
+     * pascal.taie.analysis.dataflow.fact.BitSetFact}), the number of keys
+     * of a {@link MapFact} (including {@link
+     * pascal.taie.analysis.dataflow.analysis.constprop.CPFact}), or the sum
+     * of the sizes of the components of a {@link ProductFact};
+     * 0 for other facts.
+     */
+    private static long sizeOf(Object fact) {
+        if (fact instanceof SetFact<?> setFact) {
+            return setFact.size();
+        } else if (fact instanceof MapFact<?, ?> mapFact) {
+            return mapFact.size();
+        } else if (fact instanceof ProductFact productFact) {
+            long size = 0;
+            for (int i = 0; i < productFact.size(); ++i) {
+                size += sizeOf(productFact.get(i));
+            }
+            return size;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * @return the kind of the solver which produced this profile,
+     * i.e., "worklist", "block", or "wto".
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * @return the number of nodes in the CFG.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the total number of node transfers.
+     */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    /**
+     * @return the total number of meets.
+     */
+    public long getMeets() {
+        return meets;
+    }
+
+    /**
+     * @return the maximum number of nodes (or blocks) in the work list
+     * at any time, or 0 if the solver does not use a work list.
+     */
+    public int getMaxWorkListSize() {
+        return maxWorkListSize;
+    }
+
+    /**
+     * @return the number of IN and OUT facts kept in the result.
+     * For {@link BlockSolver}, this counts only the facts
+     * at block boundaries.
+     */
+    public int getFacts() {
+        return facts;
+    }
+
+    /**
+     * @return the total number of elements in the IN and OUT facts
+     * kept in the result.
+     */
+    public long getFactSize() {
+        return factSize;
+    }
+
+    /**
+     * @return the wall time of the solving in nanoseconds.
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return at most {@code limit} nodes which have been transferred
+     * the most times, together with their numbers of transfers.
+     */
+    public List<Map.Entry<Node, Integer>> getHottestNodes(int limit) {
+        return nodeTransfers.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Node, Integer>comparingByValue(
+                        Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.WeakTopologicalOrder;
+import pascal.taie.analysis.graph.cfg.WeakTopologicalOrder.Element;
+
+/**
+ * Solver which follows the recursive iteration strategy over the weak
+ * topological order of the CFG (see {@link WeakTopologicalOrder}).
+ * <p>
+ * The nodes are processed in the order once, except that each component
+ * is iterated until the OUT fact (resp. IN fact in backward analyses)
+ * of its head does not change, which stabilizes inner loops before
+ * outer ones. Thus the changes are only checked at the heads of
+ * components, and no work list is maintained.
+ */
+class WTOSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis,
+              SolverProfile<Node> profile) {
+        super(analysis, profile);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Element<Node> element : WeakTopologicalOrder.of(cfg, true).getElements()) {
+            solveForward(cfg, result, element);
+        }
+    }
+
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              Element<Node> element) {
+        if (!element.isComponent()) {
+            transferForward(cfg, result, element.getNode());
+            return;
+        }
+        boolean first = true;
+        while (transferForward(cfg, result, element.getNode()) || first) {
+            first = false;
+            for (Element<Node> e : element.getBody()) {
+                solveForward(cfg, result, e);
+            }
+        }
+    }
+
+    /**
+     * Meets the OUT facts of the predecessors of given node into its IN
+     * fact, and transfers the IN fact.
+     *
+     * @return true if the OUT fact of the node has been changed.
+     */
+    private boolean transferForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                    Node node) {
+        Fact in = result.getInFact(node);
+        for (Node pred : cfg.getPredsOf(node)) {
+            analysis.meetInto(result.getOutFact(pred), in);
+        }
+        return analysis.transferNode(node, in, result.getOutFact(node));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Element<Node> element : WeakTopologicalOrder.of(cfg, false).getElements()) {
+            solveBackward(cfg, result, element);
+        }
+    }
+
+    private void solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Element<Node> element) {
+        if (!element.isComponent()) {
+            transferBackward(cfg, result, element.getNode());
+            return;
+        }
+        boolean first = true;
+        while (transferBackward(cfg, result, element.getNode()) || first) {
+            first = false;
+            for (Element<Node> e : element.getBody()) {
+                solveBackward(cfg, result, e);
+            }
+        }
+    }
+
+    /**
+     * Meets the IN facts of the successors of given node into its OUT
+     * fact, and transfers the OUT fact.
+     *
+     * @return true if the IN fact of the node has been changed.
+     */
+    private boolean transferBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                     Node node) {
+        Fact out = result.getOutFact(node);
+        for (Node succ : cfg.getSuccsOf(node)) {
+            analysis.meetInto(result.getInFact(succ), out);
+        }
+        return analysis.transferNode(node, result.getInFact(node), out);
+    }
+}
@@ -25,76 +25,60 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGNodeOrder;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
+/**
+ * Work-list solver, which only meets the facts that have changed
+ * since they were last met into a node (see {@link FactVersions}).
+ */
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
-    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
-        super(analysis);
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis,
+                   SolverProfile<Node> profile) {
+        super(analysis, profile);
     }
 
-    private void getWorkListDFS(Node cur, CFG<Node> cfg, Queue<Node> workList) {
-        if(workList.contains(cur)) {
-            return;
-        }
-        workList.add(cur);
-        for(Node next : (analysis.isForward() ? cfg.getSuccsOf(cur) : cfg.getPredsOf(cur) ) ) {
-            getWorkListDFS(next, cfg, workList);
-        }
-    }
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODOO - finish me
-        initializeForward(cfg, result);
-
-        Queue<Node> workList = new LinkedList<Node>();
-        getWorkListDFS(cfg.getEntry(), cfg, workList);
-        for(Node n : cfg.getNodes() ) {
-            getWorkListDFS(n, cfg, workList);
-        }
-
-        while(!workList.isEmpty() ) {
-            Node p = workList.remove();
-            for(Node pre : cfg.getPredsOf(p) ) {
-                analysis.meetInto(result.getOutFact(pre), result.getInFact(p) );
-            }
-            if(analysis.transferNode(p, result.getInFact(p), result.getOutFact(p) ) ) {
-                for(Node suc : cfg.getSuccsOf(p) ) {
-                    if(!workList.contains(suc) ) {
-                        workList.add(suc);
-                    }
+        CFGNodeOrder<Node> order = CFGNodeOrder.of(cfg);
+        NodeWorkList<Node> workList = new NodeWorkList<>(order, true);
+        FactVersions<Node> versions = new FactVersions<>(cfg, order, true);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            versions.meetChanged(node, in, result::getOutFact, analysis);
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                versions.changed(node);
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.add(succ);
                 }
             }
         }
+        if (profile != null) {
+            profile.updateWorkListSize(workList.getMaxSize());
+        }
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODOO - finish me
-
-        initializeBackward(cfg, result);
-
-        Queue<Node> workList = new LinkedList<Node>();
-        getWorkListDFS(cfg.getExit(), cfg, workList);
-        for(Node n : cfg.getNodes() ) {
-            getWorkListDFS(n, cfg, workList);
-        }
-
-        while(!workList.isEmpty() ) {
-            Node p = workList.remove();
-            for(Node suc : cfg.getSuccsOf(p) ) {
-                analysis.meetInto(result.getInFact(suc), result.getOutFact(p) );
-            }
-
-            if(analysis.transferNode(p, result.getInFact(p), result.getOutFact(p) ) ) {
-                for(Node pre : cfg.getPredsOf(p) ) {
-                    if(!workList.contains(pre) ) {
-                        workList.add(pre);
-                    }
+        CFGNodeOrder<Node> order = CFGNodeOrder.of(cfg);
+        NodeWorkList<Node> workList = new NodeWorkList<>(order, false);
+        FactVersions<Node> versions = new FactVersions<>(cfg, order, false);
+        workList.addAll();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact out = result.getOutFact(node);
+            versions.meetChanged(node, out, result::getInFact, analysis);
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                versions.changed(node);
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.add(pred);
                 }
             }
         }
+        if (profile != null) {
+            profile.updateWorkListSize(workList.getMaxSize());
+        }
     }
 }
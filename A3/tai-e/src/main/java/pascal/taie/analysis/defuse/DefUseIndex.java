@@ -0,0 +1,405 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.defuse;
+
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Index of the variables defined and used by each stmt of an IR, which
+ * is shared by the analyses that decompose the stmts in their transfer
+ * functions, so that each stmt is decomposed only once. The variables
+ * and stmts are recorded by their indexes in primitive arrays.
+ * <p>
+ * The index also provides the SSA renaming of the variables (see
+ * {@link SSARenaming}), and the def-use and use-def chains of the IR
+ * which are computed on the renaming. Both are computed when they are
+ * first queried. The parameters (and "this" variable) are not defined
+ * by any stmt, thus their uses may have no reaching definitions.
+ * <p>
+ * The index of an IR is computed once and cached in the IR,
+ * use {@link #of(IR)} to obtain it.
+ */
+public final class DefUseIndex {
+
+    /**
+     * Key of the index in the result holder of {@link IR}.
+     */
+    private static final String KEY = "def-use-index";
+
+    private static final int[] EMPTY = {};
+
+    private final IR ir;
+
+    /**
+     * Map from stmt index to the index of the variable defined
+     * by the stmt, or -1 if the stmt does not define a variable.
+     */
+    private final int[] defs;
+
+    /**
+     * Map from stmt index to the (distinct) indexes of the variables
+     * used by the stmt.
+     */
+    private final int[][] uses;
+
+    /**
+     * Map from variable index to the indexes of the stmts
+     * which define the variable.
+     */
+    private final int[][] defStmts;
+
+    /**
+     * The SSA renaming and the chains, computed on demand and published
+     * at once, so that the queries need no lock once they are computed.
+     */
+    private volatile SSARenaming renaming;
+
+    private volatile Chains chains;
+
+    private DefUseIndex(IR ir) {
+        this.ir = ir;
+        List<Stmt> stmts = ir.getStmts();
+        int n = stmts.size();
+        defs = new int[n];
+        uses = new int[n][];
+        int[] numberOfDefs = new int[ir.getVars().size()];
+        BitSet used = new BitSet();
+        int[] buffer = new int[8];
+        for (Stmt stmt : stmts) {
+            int i = stmt.getIndex();
+            LValue def = stmt.getDef().orElse(null);
+            if (def instanceof Var var) {
+                defs[i] = var.getIndex();
+                ++numberOfDefs[var.getIndex()];
+            } else {
+                defs[i] = -1;
+            }
+            int size = collectUses(stmt.getUses(), used, buffer, 0);
+            if (size > buffer.length) {
+                // the buffer overflowed, thus collect the uses again
+                buffer = new int[size];
+                used.clear();
+                size = collectUses(stmt.getUses(), used, buffer, 0);
+            }
+            uses[i] = size == 0 ? EMPTY : Arrays.copyOf(buffer, size);
+            used.clear();
+        }
+        defStmts = new int[numberOfDefs.length][];
+        for (int v = 0; v < numberOfDefs.length; ++v) {
+            defStmts[v] = numberOfDefs[v] == 0 ? EMPTY : new int[numberOfDefs[v]];
+            numberOfDefs[v] = 0;
+        }
+        for (int i = 0; i < n; ++i) {
+            int v = defs[i];
+            if (v != -1) {
+                defStmts[v][numberOfDefs[v]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Collects the indexes of the variables in given uses (recursively)
+     * into the buffer, in the order of their first occurrences.
+     *
+     * @return the number of distinct variables, which may exceed
+     * the length of the buffer.
+     */
+    private static int collectUses(
+            List<RValue> rvalues, BitSet used, int[] buffer, int size) {
+        for (RValue rvalue : rvalues) {
+            if (rvalue instanceof Var var) {
+                int v = var.getIndex();
+                if (!used.get(v)) {
+                    used.set(v);
+                    if (size < buffer.length) {
+                        buffer[size] = v;
+                    }
+                    ++size;
+                }
+            } else {
+                size = collectUses(rvalue.getUses(), used, buffer, size);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the def-use index of given IR.
+     */
+    public static DefUseIndex of(IR ir) {
+        return ir.getResult(KEY, () -> new DefUseIndex(ir));
+    }
+
+    /**
+     * @return the index of the variable defined by given stmt,
+     * or -1 if the stmt does not define a variable (the entry and
+     * exit of the CFG do not belong to the IR, and define nothing).
+     */
+    public int getDefIndex(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i < defs.length ? defs[i] : -1;
+    }
+
+    /**
+     * @return the variable defined by given stmt, or null if the stmt
+     * does not define a variable.
+     */
+    @Nullable
+    public Var getDef(Stmt stmt) {
+        int v = getDefIndex(stmt);
+        return v == -1 ? null : ir.getVar(v);
+    }
+
+    /**
+     * @return the indexes of the variables used by given stmt.
+     * The returned array should not be modified.
+     */
+    public int[] getUseIndexes(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i < uses.length ? uses[i] : EMPTY;
+    }
+
+    /**
+     * @return the indexes of the stmts which define given variable.
+     * The returned array should not be modified.
+     */
+    public int[] getDefStmts(Var var) {
+        return defStmts[var.getIndex()];
+    }
+
+    /**
+     * @return the indexes of the stmts whose definitions reach the uses
+     * of given stmt (the use-def chain), in ascending order.
+     * The returned array should not be modified.
+     */
+    public int[] getReachingDefs(Stmt stmt) {
+        int[][] useDefs = getChains().useDefs();
+        int i = stmt.getIndex();
+        return i < useDefs.length ? useDefs[i] : EMPTY;
+    }
+
+    /**
+     * @return the indexes of the stmts whose uses are reached by the
+     * definition of given stmt (the def-use chain), in ascending order.
+     * The returned array should not be modified.
+     */
+    public int[] getReachedUses(Stmt stmt) {
+        int[][] defUses = getChains().defUses();
+        int i = stmt.getIndex();
+        return i < defUses.length ? defUses[i] : EMPTY;
+    }
+
+    /**
+     * @return the SSA renaming of the variables of the IR.
+     */
+    public SSARenaming getSSARenaming() {
+        SSARenaming result = renaming;
+        if (result == null) {
+            synchronized (this) {
+                result = renaming;
+                if (result == null) {
+                    result = new SSARenaming(ir.getResult(CFGBuilder.ID),
+                            defs, uses, defStmts);
+                    renaming = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Chains getChains() {
+        Chains result = chains;
+        if (result == null) {
+            synchronized (this) {
+                result = chains;
+                if (result == null) {
+                    result = new ChainBuilder().build();
+                    chains = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The use-def chains and def-use chains, indexed by stmt index.
+     */
+    private record Chains(int[][] useDefs, int[][] defUses) {
+    }
+
+    /**
+     * Computes the chains from the SSA renaming of the variables. The
+     * definitions which reach a phi function are collected from its
+     * operands when the phi is first used, and then reused. Thus, the
+     * chains are computed without any dense fact per stmt.
+     * <p>
+     * Only the stmts that are reachable from the entry of the CFG take part
+     * in the chains, as the definitions in unreachable stmts never reach
+     * any use at runtime.
+     */
+    private final class ChainBuilder {
+
+        private final SSARenaming renaming = getSSARenaming();
+
+        /**
+         * Number of the stmts in the IR. The stmt with index i defines the
+         * name i, and phi function p defines the name (n + p).
+         */
+        private final int n = defs.length;
+
+        /**
+         * Definitions which reach each phi function, resolved on demand.
+         */
+        private int[][] phiDefs;
+
+        /**
+         * Working storage of {@link #resolve(int)}, where the visited phis
+         * and the collected definitions are marked by the current stamp.
+         */
+        private int stamp;
+
+        private int[] phiMarks;
+
+        private int[] phiStack;
+
+        private int[] defMarks;
+
+        private int[] defBuffer = new int[8];
+
+        private Chains build() {
+            int numberOfPhis = renaming.getNumberOfPhis();
+            phiDefs = new int[numberOfPhis][];
+            phiMarks = new int[numberOfPhis];
+            phiStack = new int[numberOfPhis];
+            defMarks = new int[n];
+            int[][] useDefs = new int[n][];
+            int[] numberOfUses = new int[n];
+            for (int i = 0; i < n; ++i) {
+                int[] names = renaming.getUseNames(ir.getStmt(i));
+                int size = 0;
+                if (names != null) {
+                    // the uses of the stmt are collected by a fresh stamp
+                    // after their phis have been resolved
+                    for (int name : names) {
+                        if (name >= n) {
+                            resolve(name - n);
+                        }
+                    }
+                    ++stamp;
+                    for (int name : names) {
+                        if (name == -1) {
+                            continue;
+                        }
+                        if (name < n) {
+                            size = addDef(name, size);
+                        } else {
+                            for (int def : phiDefs[name - n]) {
+                                size = addDef(def, size);
+                            }
+                        }
+                    }
+                }
+                if (size == 0) {
+                    useDefs[i] = EMPTY;
+                } else {
+                    useDefs[i] = Arrays.copyOf(defBuffer, size);
+                    Arrays.sort(useDefs[i]);
+                    for (int def : useDefs[i]) {
+                        ++numberOfUses[def];
+                    }
+                }
+            }
+            int[][] defUses = new int[n][];
+            for (int i = 0; i < n; ++i) {
+                defUses[i] = numberOfUses[i] == 0 ? EMPTY : new int[numberOfUses[i]];
+                numberOfUses[i] = 0;
+            }
+            for (int i = 0; i < n; ++i) {
+                for (int def : useDefs[i]) {
+                    defUses[def][numberOfUses[def]++] = i;
+                }
+            }
+            return new Chains(useDefs, defUses);
+        }
+
+        /**
+         * @return the definitions which reach given phi function, in
+         * ascending order, which are collected by a depth-first search
+         * over the phi operands that stops at the resolved phis.
+         */
+        private int[] resolve(int phi) {
+            if (phiDefs[phi] != null) {
+                return phiDefs[phi];
+            }
+            ++stamp;
+            int size = 0;
+            int top = 0;
+            phiMarks[phi] = stamp;
+            phiStack[top++] = phi;
+            while (top > 0) {
+                int p = phiStack[--top];
+                for (int name : renaming.getOperands(p)) {
+                    if (name == -1) {
+                        continue;
+                    }
+                    if (name < n) {
+                        size = addDef(name, size);
+                    } else if (phiDefs[name - n] != null) {
+                        for (int def : phiDefs[name - n]) {
+                            size = addDef(def, size);
+                        }
+                    } else if (phiMarks[name - n] != stamp) {
+                        phiMarks[name - n] = stamp;
+                        phiStack[top++] = name - n;
+                    }
+                }
+            }
+            int[] result = size == 0 ? EMPTY : Arrays.copyOf(defBuffer, size);
+            Arrays.sort(result);
+            phiDefs[phi] = result;
+            return result;
+        }
+
+        private int addDef(int def, int size) {
+            if (defMarks[def] != stamp) {
+                defMarks[def] = stamp;
+                if (size == defBuffer.length) {
+                    defBuffer = Arrays.copyOf(defBuffer, size * 2);
+                }
+                defBuffer[size++] = def;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.defuse;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Dominators;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Static single assignment (SSA) renaming of the variables of an IR,
+ * computed over the dominator tree of its CFG without modifying the IR.
+ * <p>
+ * Each definition receives a unique <i>name</i>: the stmt with index i
+ * defines name i, and phi function p defines name (n + p), where n is
+ * the number of stmts in the IR. Phi functions are placed at the iterated
+ * dominance frontiers of the definitions of each variable (i.e., minimal
+ * SSA form). Every use of a variable in a stmt, and every operand of
+ * a phi function, is resolved to the name of its unique reaching
+ * definition, or -1 if no definition reaches it, e.g., the uses of
+ * the parameters, which are not defined by any stmt.
+ * <p>
+ * Only the stmts that are reachable from the entry of the CFG are renamed.
+ * The renaming of an IR is computed once and shared by the analyses that
+ * need it, use {@link DefUseIndex#getSSARenaming()} to obtain it.
+ */
+public final class SSARenaming {
+
+    private static final int[] EMPTY = {};
+
+    private final CFG<Stmt> cfg;
+
+    private final Dominators<Stmt> dom;
+
+    /**
+     * Number of the stmts in the IR.
+     */
+    private final int n;
+
+    /**
+     * Node (dominator number) and variable index of each phi function.
+     */
+    private int[] phiNodes = new int[16];
+
+    private int[] phiVars = new int[16];
+
+    private int numberOfPhis;
+
+    /**
+     * Phi functions of node i are sortedPhis[phiStart[i]] ..
+     * sortedPhis[phiStart[i + 1] - 1].
+     */
+    private int[] phiStart;
+
+    private int[] sortedPhis;
+
+    /**
+     * Operands of each phi function, indexed by the position of
+     * the in-edges of its node.
+     */
+    private int[][] operands;
+
+    /**
+     * Names of the reaching definitions of the uses of each stmt,
+     * in the order of {@link DefUseIndex#getUseIndexes(Stmt)},
+     * or null for unreachable stmts.
+     */
+    private final int[][] useNames;
+
+    SSARenaming(CFG<Stmt> cfg, int[] defs, int[][] uses, int[][] defStmts) {
+        this.cfg = cfg;
+        this.dom = Dominators.of(cfg);
+        this.n = defs.length;
+        this.useNames = new int[n][];
+        placePhis(defStmts);
+        rename(defs, uses, defStmts.length);
+    }
+
+    /**
+     * @return the CFG on which the renaming is computed.
+     */
+    public CFG<Stmt> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the number of the stmts in the IR, which is also
+     * the name defined by the first phi function.
+     */
+    public int getNumberOfStmts() {
+        return n;
+    }
+
+    public int getNumberOfPhis() {
+        return numberOfPhis;
+    }
+
+    /**
+     * @return the phi functions placed at given node.
+     */
+    public int[] getPhis(Stmt node) {
+        int number = dom.getNumber(node);
+        if (number == -1 || phiStart[number] == phiStart[number + 1]) {
+            return EMPTY;
+        }
+        return Arrays.copyOfRange(sortedPhis,
+                phiStart[number], phiStart[number + 1]);
+    }
+
+    /**
+     * @return the node at which given phi function is placed.
+     */
+    public Stmt getPhiNode(int phi) {
+        return dom.getNode(phiNodes[phi]);
+    }
+
+    /**
+     * @return the index of the variable merged by given phi function.
+     */
+    public int getPhiVar(int phi) {
+        return phiVars[phi];
+    }
+
+    /**
+     * @return the names of the operands of given phi function, indexed by
+     * the positions of the in-edges of its node in
+     * {@link CFG#getInEdgesOf(Object)}. The operand of an edge is -1 if
+     * no definition reaches along the edge, or the source of the edge is
+     * unreachable. The returned array should not be modified.
+     */
+    public int[] getOperands(int phi) {
+        return operands[phi];
+    }
+
+    /**
+     * @return the names of the reaching definitions of the uses of given
+     * stmt, in the order of {@link DefUseIndex#getUseIndexes(Stmt)}, or null
+     * if the stmt is unreachable or does not belong to the IR.
+     * The returned array should not be modified.
+     */
+    @Nullable
+    public int[] getUseNames(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i < n ? useNames[i] : null;
+    }
+
+    private void placePhis(int[][] defStmts) {
+        int m = dom.size();
+        // hasPhi[node] == v + 1 iff node has a phi for variable v;
+        // queued[node] == v + 1 iff node has been queued for v
+        int[] hasPhi = new int[m];
+        int[] queued = new int[m];
+        int[] workList = new int[m];
+        for (int v = 0; v < defStmts.length; ++v) {
+            int top = 0;
+            for (int def : defStmts[v]) {
+                int node = dom.getNumber(cfg.getIR().getStmt(def));
+                if (node != -1 && queued[node] != v + 1) {
+                    queued[node] = v + 1;
+                    workList[top++] = node;
+                }
+            }
+            while (top > 0) {
+                int node = workList[--top];
+                for (int y : dom.getDominanceFrontier(node)) {
+                    if (hasPhi[y] != v + 1) {
+                        hasPhi[y] = v + 1;
+                        addPhi(y, v);
+                        if (queued[y] != v + 1) {
+                            queued[y] = v + 1;
+                            workList[top++] = y;
+                        }
+                    }
+                }
+            }
+        }
+        phiStart = new int[m + 1];
+        for (int p = 0; p < numberOfPhis; ++p) {
+            ++phiStart[phiNodes[p] + 1];
+        }
+        for (int node = 0; node < m; ++node) {
+            phiStart[node + 1] += phiStart[node];
+        }
+        sortedPhis = new int[numberOfPhis];
+        int[] next = Arrays.copyOf(phiStart, m);
+        for (int p = 0; p < numberOfPhis; ++p) {
+            sortedPhis[next[phiNodes[p]]++] = p;
+        }
+    }
+
+    private void addPhi(int node, int var) {
+        if (numberOfPhis == phiNodes.length) {
+            phiNodes = Arrays.copyOf(phiNodes, numberOfPhis * 2);
+            phiVars = Arrays.copyOf(phiVars, numberOfPhis * 2);
+        }
+        phiNodes[numberOfPhis] = node;
+        phiVars[numberOfPhis] = var;
+        ++numberOfPhis;
+    }
+
+    /**
+     * Renames the uses and phi operands by an iterative preorder
+     * traversal of the dominator tree, where a negative entry ~node
+     * denotes that the subtree of node has been traversed.
+     */
+    private void rename(int[] defs, int[][] uses, int numberOfVars) {
+        int m = dom.size();
+        // positions of the in-edges of the nodes that have phi functions
+        operands = new int[numberOfPhis][];
+        Map<Edge<Stmt>, Integer> positions = Maps.newMap();
+        for (int node = 0; node < m; ++node) {
+            if (phiStart[node] == phiStart[node + 1]) {
+                continue;
+            }
+            int position = 0;
+            for (Edge<Stmt> edge : cfg.getInEdgesOf(dom.getNode(node))) {
+                positions.put(edge, position++);
+            }
+            for (int k = phiStart[node]; k < phiStart[node + 1]; ++k) {
+                operands[sortedPhis[k]] = new int[position];
+                Arrays.fill(operands[sortedPhis[k]], -1);
+            }
+        }
+        if (m == 0) {
+            return;
+        }
+        // current[v] is the name of the reaching definition of v, and
+        // the names replaced in the traversal are saved in the undo
+        // stack, so that they are restored when leaving the subtrees
+        int[] current = new int[numberOfVars];
+        Arrays.fill(current, -1);
+        int[] undoVars = new int[n + numberOfPhis];
+        int[] undoNames = new int[n + numberOfPhis];
+        int undoTop = 0;
+        int[] undoHeights = new int[m];
+        int[] stack = new int[2 * m];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (node < 0) {
+                int height = undoHeights[~node];
+                while (undoTop > height) {
+                    --undoTop;
+                    current[undoVars[undoTop]] = undoNames[undoTop];
+                }
+                continue;
+            }
+            undoHeights[node] = undoTop;
+            for (int k = phiStart[node]; k < phiStart[node + 1]; ++k) {
+                int p = sortedPhis[k];
+                undoVars[undoTop] = phiVars[p];
+                undoNames[undoTop++] = current[phiVars[p]];
+                current[phiVars[p]] = n + p;
+            }
+            Stmt stmt = dom.getNode(node);
+            int i = stmt.getIndex();
+            if (i < n) {
+                int[] vars = uses[i];
+                int[] names = vars.length == 0 ? EMPTY : new int[vars.length];
+                for (int k = 0; k < vars.length; ++k) {
+                    names[k] = current[vars[k]];
+                }
+                useNames[i] = names;
+                int v = defs[i];
+                if (v != -1) {
+                    undoVars[undoTop] = v;
+                    undoNames[undoTop++] = current[v];
+                    current[v] = i;
+                }
+            }
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                int s = dom.getNumber(edge.getTarget());
+                if (phiStart[s] == phiStart[s + 1]) {
+                    continue;
+                }
+                int position = positions.get(edge);
+                for (int k = phiStart[s]; k < phiStart[s + 1]; ++k) {
+                    int p = sortedPhis[k];
+                    operands[p][position] = current[phiVars[p]];
+                }
+            }
+            stack[top++] = ~node;
+            for (int child : dom.getChildren(node)) {
+                stack[top++] = child;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Basic blocks of a CFG, i.e., maximal chains of nodes where each node
+ * except the first has exactly one predecessor, and each node except
+ * the last has exactly one successor. The entry and the exit of
+ * the CFG always form blocks of their own.
+ * <p>
+ * The blocks are numbered in reverse postorder of their first nodes
+ * (see {@link CFGNodeOrder}). The blocks of a CFG are computed once and
+ * cached in the IR of the CFG, use {@link #of(CFG)} to obtain them.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class BasicBlocks<N> {
+
+    /**
+     * Key of the blocks in the result holder of {@link pascal.taie.ir.IR}.
+     */
+    private static final String KEY = "cfg-basic-blocks";
+
+    private final List<List<N>> blocks = new ArrayList<>();
+
+    /**
+     * Map from node to the number of its block.
+     */
+    private final Map<N, Integer> blockOf;
+
+    /**
+     * Map from node to its position in its block.
+     */
+    private final Map<N, Integer> indexInBlock;
+
+    private BasicBlocks(CFG<N> cfg) {
+        CFGNodeOrder<N> order = CFGNodeOrder.of(cfg);
+        blockOf = Maps.newMap(order.size());
+        indexInBlock = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            N node = order.getNodeOfReversePostorder(i);
+            if (isLeader(cfg, node)) {
+                addBlock(cfg, node);
+            }
+        }
+        // the remaining nodes form cycles without leaders,
+        // which are unreachable from the entry
+        for (int i = 0; i < order.size(); ++i) {
+            N node = order.getNodeOfReversePostorder(i);
+            if (!blockOf.containsKey(node)) {
+                addBlock(cfg, node);
+            }
+        }
+    }
+
+    /**
+     * @return the basic blocks of given CFG.
+     */
+    public static <N> BasicBlocks<N> of(CFG<N> cfg) {
+        return cfg.getIR().getResult(KEY, () -> new BasicBlocks<>(cfg));
+    }
+
+    /**
+     * @return true if given node starts a block.
+     */
+    private static <N> boolean isLeader(CFG<N> cfg, N node) {
+        if (cfg.isEntry(node) || cfg.isExit(node) ||
+                cfg.getPredsOf(node).size() != 1) {
+            return true;
+        }
+        N pred = cfg.getPredsOf(node).iterator().next();
+        return cfg.isEntry(pred) || cfg.getSuccsOf(pred).size() != 1;
+    }
+
+    private void addBlock(CFG<N> cfg, N leader) {
+        int number = blocks.size();
+        List<N> block = new ArrayList<>();
+        N node = leader;
+        while (true) {
+            indexInBlock.put(node, block.size());
+            block.add(node);
+            blockOf.put(node, number);
+            if (cfg.isEntry(node) || cfg.getSuccsOf(node).size() != 1) {
+                break;
+            }
+            N succ = cfg.getSuccsOf(node).iterator().next();
+            if (blockOf.containsKey(succ) || isLeader(cfg, succ)) {
+                break;
+            }
+            node = succ;
+        }
+        blocks.add(Collections.unmodifiableList(block));
+    }
+
+    /**
+     * @return the number of blocks.
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * @return the nodes of the block with given number, in control-flow order.
+     */
+    public List<N> getBlock(int number) {
+        return blocks.get(number);
+    }
+
+    /**
+     * @return the number of the block containing given node,
+     * or -1 if the node is not in the CFG.
+     */
+    public int getBlockOf(N node) {
+        return blockOf.getOrDefault(node, -1);
+    }
+
+    /**
+     * @return the position of given node in its block,
+     * or -1 if the node is not in the CFG.
+     */
+    public int getIndexInBlock(N node) {
+        return indexInBlock.getOrDefault(node, -1);
+    }
+}
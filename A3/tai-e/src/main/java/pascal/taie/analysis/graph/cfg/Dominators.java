@@ -0,0 +1,436 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dominator tree and dominance frontiers of a CFG, or post-dominator tree
+ * and post-dominance frontiers when computed on the reverse CFG.
+ * <p>
+ * Only the nodes that are reachable from the root (the entry for
+ * dominators, and the exit for post-dominators) are numbered, in reverse
+ * postorder of the depth-first search from the root, thus the root is
+ * numbered 0. The immediate dominators are computed by the iterative
+ * algorithm of Cooper, Harvey and Kennedy, which is near-linear on CFGs
+ * in practice, and all results are kept in int arrays indexed by
+ * the numbers of the nodes. Dominance queries take constant time,
+ * as they compare the intervals of the nodes in the dominator tree.
+ * <p>
+ * The dominators of a CFG are computed once and cached in the IR of
+ * the CFG, use {@link #of(CFG)} or {@link #postDominatorsOf(CFG)}
+ * to obtain them.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class Dominators<N> {
+
+    /**
+     * Keys of the dominators in the result holder of {@link pascal.taie.ir.IR}.
+     */
+    private static final String DOM_KEY = "cfg-dominators";
+
+    private static final String POST_DOM_KEY = "cfg-post-dominators";
+
+    private static final int[] EMPTY = {};
+
+    private final boolean isPost;
+
+    /**
+     * Map from node to its number.
+     */
+    private final Map<N, Integer> numbers;
+
+    /**
+     * The nodes sorted by their numbers.
+     */
+    private final List<N> nodes;
+
+    /**
+     * Predecessors (successors for post-dominators) of node i are
+     * preds[predStart[i]] .. preds[predStart[i + 1] - 1]. Predecessors
+     * that are unreachable from the root are excluded.
+     */
+    final int[] predStart;
+
+    final int[] preds;
+
+    /**
+     * Immediate dominator of each node, the root is its own dominator.
+     */
+    private final int[] idom;
+
+    /**
+     * Children of node i in the dominator tree are
+     * children[childStart[i]] .. children[childStart[i + 1] - 1].
+     */
+    private final int[] childStart;
+
+    private final int[] children;
+
+    /**
+     * Preorder number and the largest preorder number in the subtree
+     * of each node in the dominator tree.
+     */
+    private final int[] preorder;
+
+    private final int[] lastDescendant;
+
+    /**
+     * Dominance frontier of node i is
+     * frontiers[frontierStart[i]] .. frontiers[frontierStart[i + 1] - 1],
+     * in ascending order.
+     */
+    private final int[] frontierStart;
+
+    private final int[] frontiers;
+
+    private Dominators(CFG<N> cfg, boolean isPost) {
+        this.isPost = isPost;
+        int capacity = cfg.getNumberOfNodes();
+        numbers = Maps.newMap(capacity);
+        nodes = new ArrayList<>(capacity);
+        numberNodes(cfg, isPost ? cfg.getExit() : cfg.getEntry());
+        int n = nodes.size();
+        predStart = new int[n + 1];
+        preds = collectPreds(cfg);
+        idom = new int[n];
+        computeDominators();
+        childStart = new int[n + 1];
+        children = new int[Math.max(0, n - 1)];
+        preorder = new int[n];
+        lastDescendant = new int[n];
+        buildTree();
+        frontierStart = new int[n + 1];
+        frontiers = computeFrontiers();
+    }
+
+    /**
+     * @return the dominators of given CFG.
+     */
+    public static <N> Dominators<N> of(CFG<N> cfg) {
+        return cfg.getIR().getResult(DOM_KEY, () -> new Dominators<>(cfg, false));
+    }
+
+    /**
+     * @return the post-dominators of given CFG.
+     */
+    public static <N> Dominators<N> postDominatorsOf(CFG<N> cfg) {
+        return cfg.getIR().getResult(POST_DOM_KEY, () -> new Dominators<>(cfg, true));
+    }
+
+    private Iterator<N> succsOf(CFG<N> cfg, N node) {
+        return (isPost ? cfg.getPredsOf(node) : cfg.getSuccsOf(node)).iterator();
+    }
+
+    /**
+     * Numbers the nodes reachable from the root in reverse postorder,
+     * by iterative depth-first search. For dominators, the numbers are
+     * consistent with {@link CFGNodeOrder}, i.e., they preserve
+     * the order of {@link CFGNodeOrder#getReversePostorder}.
+     */
+    private void numberNodes(CFG<N> cfg, N root) {
+        Deque<N> stack = new ArrayDeque<>();
+        Deque<Iterator<N>> succs = new ArrayDeque<>();
+        numbers.put(root, -1);
+        stack.push(root);
+        succs.push(succsOf(cfg, root));
+        while (!stack.isEmpty()) {
+            Iterator<N> it = succs.peek();
+            if (it.hasNext()) {
+                N succ = it.next();
+                if (numbers.putIfAbsent(succ, -1) == null) {
+                    stack.push(succ);
+                    succs.push(succsOf(cfg, succ));
+                }
+            } else {
+                nodes.add(stack.pop());
+                succs.pop();
+            }
+        }
+        // reverse the postorder
+        Collections.reverse(nodes);
+        for (int i = 0; i < nodes.size(); ++i) {
+            numbers.put(nodes.get(i), i);
+        }
+    }
+
+    private int[] collectPreds(CFG<N> cfg) {
+        int n = nodes.size();
+        int[] result = new int[16];
+        int size = 0;
+        for (int node = 0; node < n; ++node) {
+            predStart[node] = size;
+            N stmt = nodes.get(node);
+            for (N pred : isPost ? cfg.getSuccsOf(stmt) : cfg.getPredsOf(stmt)) {
+                int number = getNumber(pred);
+                if (number != -1) {
+                    if (size == result.length) {
+                        result = Arrays.copyOf(result, size * 2);
+                    }
+                    result[size++] = number;
+                }
+            }
+        }
+        predStart[n] = size;
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Computes immediate dominators by the iterative algorithm of
+     * Cooper, Harvey and Kennedy over the reverse postorder.
+     */
+    private void computeDominators() {
+        int n = nodes.size();
+        if (n == 0) {
+            return;
+        }
+        Arrays.fill(idom, -1);
+        idom[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int node = 1; node < n; ++node) {
+                int newIdom = -1;
+                for (int i = predStart[node]; i < predStart[node + 1]; ++i) {
+                    int pred = preds[i];
+                    if (idom[pred] != -1) {
+                        newIdom = newIdom == -1 ? pred : intersect(pred, newIdom);
+                    }
+                }
+                if (idom[node] != newIdom) {
+                    idom[node] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int node1, int node2) {
+        while (node1 != node2) {
+            while (node1 > node2) {
+                node1 = idom[node1];
+            }
+            while (node2 > node1) {
+                node2 = idom[node2];
+            }
+        }
+        return node1;
+    }
+
+    /**
+     * Builds the children of the nodes in the dominator tree, and numbers
+     * the nodes in preorder of the tree.
+     */
+    private void buildTree() {
+        int n = nodes.size();
+        if (n == 0) {
+            return;
+        }
+        for (int node = 1; node < n; ++node) {
+            ++childStart[idom[node] + 1];
+        }
+        for (int node = 0; node < n; ++node) {
+            childStart[node + 1] += childStart[node];
+        }
+        int[] next = Arrays.copyOf(childStart, n);
+        for (int node = 1; node < n; ++node) {
+            children[next[idom[node]]++] = node;
+        }
+        // iterative preorder traversal, where a negative entry ~node
+        // denotes that the subtree of node has been traversed
+        int[] stack = new int[2 * n];
+        int top = 0;
+        int counter = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (node < 0) {
+                lastDescendant[~node] = counter - 1;
+                continue;
+            }
+            preorder[node] = counter++;
+            stack[top++] = ~node;
+            for (int i = childStart[node + 1] - 1; i >= childStart[node]; --i) {
+                stack[top++] = children[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the dominance frontiers by walking up the dominator tree
+     * from the predecessors of each join node (Cooper, Harvey and Kennedy).
+     */
+    private int[] computeFrontiers() {
+        int n = nodes.size();
+        // (runner, node) pairs, collected in ascending order of node
+        int[] runners = new int[16];
+        int[] joins = new int[16];
+        int size = 0;
+        int[] lastJoin = new int[n];
+        Arrays.fill(lastJoin, -1);
+        for (int node = 0; node < n; ++node) {
+            if (predStart[node + 1] - predStart[node] < 2) {
+                continue;
+            }
+            for (int i = predStart[node]; i < predStart[node + 1]; ++i) {
+                int runner = preds[i];
+                while (runner != idom[node] && lastJoin[runner] != node) {
+                    lastJoin[runner] = node;
+                    if (size == runners.length) {
+                        runners = Arrays.copyOf(runners, size * 2);
+                        joins = Arrays.copyOf(joins, size * 2);
+                    }
+                    runners[size] = runner;
+                    joins[size] = node;
+                    ++size;
+                    if (runner == 0) {
+                        break; // the root has no dominator
+                    }
+                    runner = idom[runner];
+                }
+            }
+        }
+        for (int i = 0; i < size; ++i) {
+            ++frontierStart[runners[i] + 1];
+        }
+        for (int node = 0; node < n; ++node) {
+            frontierStart[node + 1] += frontierStart[node];
+        }
+        int[] result = new int[size];
+        int[] next = Arrays.copyOf(frontierStart, n);
+        for (int i = 0; i < size; ++i) {
+            result[next[runners[i]]++] = joins[i];
+        }
+        return result;
+    }
+
+    /**
+     * @return true if these are post-dominators, otherwise false.
+     */
+    public boolean isPostDominators() {
+        return isPost;
+    }
+
+    /**
+     * @return the number of the nodes that are reachable from the root.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the number of given node, or -1 if the node is unreachable
+     * from the root.
+     */
+    public int getNumber(N node) {
+        Integer number = numbers.get(node);
+        return number == null ? -1 : number;
+    }
+
+    /**
+     * @return the node with given number.
+     */
+    public N getNode(int number) {
+        return nodes.get(number);
+    }
+
+    /**
+     * @return the number of the immediate dominator of given node,
+     * or -1 if the node is the root.
+     */
+    public int getImmediateDominator(int number) {
+        return number == 0 ? -1 : idom[number];
+    }
+
+    /**
+     * @return the immediate dominator of given node, or null if the node
+     * is the root or unreachable from the root.
+     */
+    public N getImmediateDominator(N node) {
+        int number = getNumber(node);
+        return number <= 0 ? null : nodes.get(idom[number]);
+    }
+
+    /**
+     * @return true if node1 dominates node2 (each node dominates itself).
+     */
+    public boolean dominates(int number1, int number2) {
+        return preorder[number1] <= preorder[number2] &&
+                preorder[number2] <= lastDescendant[number1];
+    }
+
+    /**
+     * @return true if node1 dominates node2 (each node dominates itself),
+     * false if any of the nodes is unreachable from the root.
+     */
+    public boolean dominates(N node1, N node2) {
+        int number1 = getNumber(node1);
+        int number2 = getNumber(node2);
+        return number1 != -1 && number2 != -1 && dominates(number1, number2);
+    }
+
+    /**
+     * @return the numbers of the children of given node in the dominator tree.
+     */
+    public int[] getChildren(int number) {
+        return slice(children, childStart, number);
+    }
+
+    /**
+     * @return the numbers of the nodes in the dominance frontier
+     * of given node, in ascending order.
+     */
+    public int[] getDominanceFrontier(int number) {
+        return slice(frontiers, frontierStart, number);
+    }
+
+    /**
+     * @return the dominance frontier of given node, or an empty list
+     * if the node is unreachable from the root.
+     */
+    public List<N> getDominanceFrontier(N node) {
+        int number = getNumber(node);
+        if (number == -1) {
+            return List.of();
+        }
+        return Arrays.stream(getDominanceFrontier(number))
+                .mapToObj(nodes::get)
+                .toList();
+    }
+
+    private static int[] slice(int[] array, int[] start, int number) {
+        int from = start[number], to = start[number + 1];
+        return from == to ? EMPTY : Arrays.copyOfRange(array, from, to);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loop-nest forest of a CFG. Each loop is a natural loop identified by
+ * its header, i.e., the target of the back edges whose target dominates
+ * their source, and a loop is nested in another loop if its header is
+ * in the body of the other loop. Cycles of irreducible CFGs, which have
+ * no such header, are not regarded as loops.
+ * <p>
+ * The loops are computed from the {@link Dominators} of the CFG by
+ * processing the headers from inner to outer (in descending reverse
+ * postorder), and collapsing each processed loop into its header by
+ * union-find, which takes near-linear time. Like the dominators,
+ * all results are kept in int arrays indexed by the numbers of the nodes,
+ * and the loop-nest forest of a CFG is computed once and cached in
+ * its IR, use {@link #of(CFG)} to obtain it.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class LoopForest<N> {
+
+    /**
+     * Key of the loop-nest forest in the result holder of {@link pascal.taie.ir.IR}.
+     */
+    private static final String KEY = "cfg-loop-forest";
+
+    private final Dominators<N> dom;
+
+    /**
+     * Header of the innermost loop containing each node, or -1 if the node
+     * is not in any loop. The header of a loop is the header of itself.
+     */
+    private final int[] header;
+
+    /**
+     * Header of the loop that immediately encloses the loop of each header,
+     * or -1 for outermost loops and the nodes that are not headers.
+     */
+    private final int[] parent;
+
+    /**
+     * Number of loops containing each node.
+     */
+    private final int[] depth;
+
+    private final List<N> headers = new ArrayList<>();
+
+    private LoopForest(CFG<N> cfg) {
+        dom = Dominators.of(cfg);
+        int n = dom.size();
+        header = new int[n];
+        parent = new int[n];
+        depth = new int[n];
+        Arrays.fill(header, -1);
+        Arrays.fill(parent, -1);
+        computeLoops();
+    }
+
+    /**
+     * @return the loop-nest forest of given CFG.
+     */
+    public static <N> LoopForest<N> of(CFG<N> cfg) {
+        return cfg.getIR().getResult(KEY, () -> new LoopForest<>(cfg));
+    }
+
+    private void computeLoops() {
+        int n = dom.size();
+        int[] preds = dom.preds, predStart = dom.predStart;
+        // union-find, each processed loop is collapsed into its header
+        int[] rep = new int[n];
+        for (int node = 0; node < n; ++node) {
+            rep[node] = node;
+        }
+        int[] visited = new int[n];
+        Arrays.fill(visited, -1);
+        int[] stack = new int[n];
+        for (int h = n - 1; h >= 0; --h) {
+            int top = 0;
+            boolean isHeader = false;
+            for (int i = predStart[h]; i < predStart[h + 1]; ++i) {
+                int pred = preds[i];
+                if (dom.dominates(h, pred)) { // back edge pred -> h
+                    isHeader = true;
+                    int latch = find(rep, pred);
+                    if (latch != h && visited[latch] != h) {
+                        visited[latch] = h;
+                        stack[top++] = latch;
+                    }
+                }
+            }
+            if (!isHeader) {
+                continue;
+            }
+            header[h] = h;
+            while (top > 0) {
+                int node = stack[--top];
+                if (header[node] == -1) {
+                    header[node] = h;
+                } else { // node is the header of an inner loop
+                    parent[node] = h;
+                }
+                rep[node] = h;
+                for (int i = predStart[node]; i < predStart[node + 1]; ++i) {
+                    int pred = find(rep, preds[i]);
+                    if (pred != h && visited[pred] != h
+                            && dom.dominates(h, pred)) {
+                        visited[pred] = h;
+                        stack[top++] = pred;
+                    }
+                }
+            }
+        }
+        // outer loops precede inner loops in reverse postorder
+        for (int node = 0; node < n; ++node) {
+            if (header[node] == node) {
+                depth[node] = parent[node] == -1 ? 1 : depth[parent[node]] + 1;
+                headers.add(dom.getNode(node));
+            } else if (header[node] != -1) {
+                depth[node] = depth[header[node]];
+            }
+        }
+    }
+
+    private static int find(int[] rep, int node) {
+        int root = node;
+        while (rep[root] != root) {
+            root = rep[root];
+        }
+        while (rep[node] != root) {
+            int next = rep[node];
+            rep[node] = root;
+            node = next;
+        }
+        return root;
+    }
+
+    /**
+     * @return the dominators which the loops are computed from.
+     */
+    public Dominators<N> getDominators() {
+        return dom;
+    }
+
+    /**
+     * @return headers of all loops in reverse postorder, thus the header
+     * of a loop precedes the headers of its inner loops.
+     */
+    public List<N> getLoopHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return true if given node is the header of a loop, otherwise false.
+     */
+    public boolean isLoopHeader(N node) {
+        int number = dom.getNumber(node);
+        return number != -1 && header[number] == number;
+    }
+
+    /**
+     * @return the header of the innermost loop containing given node,
+     * or null if the node is not in any loop.
+     */
+    public N getLoopHeader(N node) {
+        int number = dom.getNumber(node);
+        return number == -1 || header[number] == -1 ?
+                null : dom.getNode(header[number]);
+    }
+
+    /**
+     * @return the header of the loop that immediately encloses the loop
+     * of given header, or null if the loop is outermost.
+     */
+    public N getParentLoop(N header) {
+        int number = dom.getNumber(header);
+        return number == -1 || parent[number] == -1 ?
+                null : dom.getNode(parent[number]);
+    }
+
+    /**
+     * @return the number of loops containing given node.
+     */
+    public int getLoopDepth(N node) {
+        int number = dom.getNumber(node);
+        return number == -1 ? 0 : depth[number];
+    }
+
+    /**
+     * @return true if the loop of given header contains given node.
+     */
+    public boolean contains(N header, N node) {
+        int h = dom.getNumber(header);
+        int number = dom.getNumber(node);
+        if (h == -1 || number == -1 || this.header[h] != h) {
+            return false;
+        }
+        for (int l = this.header[number]; l != -1; l = parent[l]) {
+            if (l == h) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weak topological order of the nodes of a CFG, computed by
+ * Bourdoncle's algorithm (see "Efficient chaotic iteration strategies
+ * with widenings", FMPP 1993).
+ * <p>
+ * A weak topological order is a well-parenthesized sequence of nodes:
+ * each pair of parentheses encloses a <i>component</i>, which consists of
+ * a head followed by the (possibly nested) components and nodes of a loop.
+ * Every edge that goes backward in the order targets the head of a
+ * component containing its source, so that iterating each component until
+ * its head stabilizes, inner components first, reaches the fixed point.
+ * <p>
+ * The order of a forward (resp. backward) analysis starts from the entry
+ * (resp. exit) of the CFG and follows the successors (resp. predecessors),
+ * then covers the remaining nodes, so that every node is ordered.
+ * The orders of a CFG are computed once and cached in the IR of the CFG,
+ * use {@link #of(CFG, boolean)} to obtain them.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class WeakTopologicalOrder<N> {
+
+    /**
+     * Keys of the orders in the result holder of {@link pascal.taie.ir.IR}.
+     */
+    private static final String FORWARD_KEY = "cfg-wto-forward";
+
+    private static final String BACKWARD_KEY = "cfg-wto-backward";
+
+    private final List<Element<N>> elements;
+
+    private WeakTopologicalOrder(CFG<N> cfg, boolean isForward) {
+        elements = new Builder<>(cfg, isForward).build();
+    }
+
+    /**
+     * @param isForward if true, returns the order which follows
+     *                  the control flow, otherwise returns the order
+     *                  which follows the reversed control flow.
+     * @return the weak topological order of given CFG.
+     */
+    public static <N> WeakTopologicalOrder<N> of(CFG<N> cfg, boolean isForward) {
+        return cfg.getIR().getResult(isForward ? FORWARD_KEY : BACKWARD_KEY,
+                () -> new WeakTopologicalOrder<>(cfg, isForward));
+    }
+
+    /**
+     * @return the top-level elements of this order.
+     */
+    public List<Element<N>> getElements() {
+        return elements;
+    }
+
+    /**
+     * Element of a weak topological order, which is either a single node,
+     * or a component consisting of a head node and a body.
+     */
+    public static class Element<N> {
+
+        private final N node;
+
+        /**
+         * Body of the component, or null if this element is a single node.
+         */
+        private final List<Element<N>> body;
+
+        private Element(N node, List<Element<N>> body) {
+            this.node = node;
+            this.body = body;
+        }
+
+        /**
+         * @return the node of this element, i.e., the head if this element
+         * is a component.
+         */
+        public N getNode() {
+            return node;
+        }
+
+        public boolean isComponent() {
+            return body != null;
+        }
+
+        /**
+         * @return the elements of the component following its head.
+         * @throws UnsupportedOperationException if this element is not
+         *                                       a component.
+         */
+        public List<Element<N>> getBody() {
+            if (body == null) {
+                throw new UnsupportedOperationException(
+                        node + " is not the head of a component");
+            }
+            return body;
+        }
+
+        @Override
+        public String toString() {
+            if (body == null) {
+                return node.toString();
+            }
+            StringBuilder sb = new StringBuilder("(").append(node);
+            body.forEach(e -> sb.append(' ').append(e));
+            return sb.append(')').toString();
+        }
+    }
+
+    /**
+     * Bourdoncle's recursive algorithm, with the recursion unfolded into
+     * an explicit stack of frames, so that long methods do not overflow
+     * the stack.
+     */
+    private static class Builder<N> {
+
+        private static final int DONE = Integer.MAX_VALUE;
+
+        private final CFG<N> cfg;
+
+        private final boolean isForward;
+
+        /**
+         * Depth-first numbers of the nodes; 0 for the nodes to be visited,
+         * and {@link #DONE} for the nodes which have been placed.
+         */
+        private final Map<N, Integer> dfn;
+
+        private int num = 0;
+
+        /**
+         * The visited nodes which have not been placed yet.
+         */
+        private final Deque<N> nodeStack = new ArrayDeque<>();
+
+        private final Deque<Frame<N>> frames = new ArrayDeque<>();
+
+        private Builder(CFG<N> cfg, boolean isForward) {
+            this.cfg = cfg;
+            this.isForward = isForward;
+            this.dfn = Maps.newMap(cfg.getIR().getStmts().size() + 2);
+        }
+
+        private List<Element<N>> build() {
+            Deque<Element<N>> partition = new ArrayDeque<>();
+            visitFrom(isForward ? cfg.getEntry() : cfg.getExit(), partition);
+            CFGNodeOrder<N> order = CFGNodeOrder.of(cfg);
+            for (int i = 0; i < order.size(); ++i) {
+                visitFrom(order.getNodeOfReversePostorder(i), partition);
+            }
+            return Collections.unmodifiableList(new ArrayList<>(partition));
+        }
+
+        private int dfn(N node) {
+            return dfn.getOrDefault(node, 0);
+        }
+
+        private Iterator<N> nextsOf(N node) {
+            return (isForward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node))
+                    .iterator();
+        }
+
+        /**
+         * Places the nodes reachable from given root which have not been
+         * placed yet, in front of the partition.
+         */
+        private void visitFrom(N root, Deque<Element<N>> partition) {
+            if (dfn(root) != 0) {
+                return;
+            }
+            call(root, partition);
+            while (!frames.isEmpty()) {
+                Frame<N> frame = frames.peek();
+                if (frame.nexts.hasNext()) {
+                    N next = frame.nexts.next();
+                    int min = dfn(next);
+                    if (min == 0) {
+                        call(next, frame.isComponent() ?
+                                frame.body : frame.partition);
+                    } else if (!frame.isComponent()) {
+                        frame.update(min);
+                    }
+                } else if (frame.isComponent()) {
+                    frames.pop();
+                    frame.partition.addFirst(new Element<>(frame.node,
+                            Collections.unmodifiableList(new ArrayList<>(frame.body))));
+                    ret(frame.head);
+                } else {
+                    finishVisit(frame);
+                }
+            }
+        }
+
+        /**
+         * Starts visiting given node, whose elements are to be placed
+         * in front of the partition.
+         */
+        private void call(N node, Deque<Element<N>> partition) {
+            nodeStack.push(node);
+            dfn.put(node, ++num);
+            frames.push(new Frame<>(node, nextsOf(node), num, partition));
+        }
+
+        /**
+         * Finishes visiting the node of given frame, after all its
+         * successors (in the order's direction) have been visited.
+         */
+        private void finishVisit(Frame<N> frame) {
+            frames.pop();
+            N node = frame.node;
+            if (frame.head == dfn(node)) {
+                dfn.put(node, DONE);
+                N element = nodeStack.pop();
+                if (frame.loop) {
+                    while (element != node) {
+                        dfn.put(element, 0);
+                        element = nodeStack.pop();
+                    }
+                    // the node heads a component, whose body is built by
+                    // visiting its successors again
+                    Frame<N> component = new Frame<>(
+                            node, nextsOf(node), frame.head, frame.partition);
+                    component.body = new ArrayDeque<>();
+                    frames.push(component);
+                    return;
+                }
+                frame.partition.addFirst(new Element<>(node, null));
+            }
+            ret(frame.head);
+        }
+
+        /**
+         * Returns the head of a finished visit to the frame which called it.
+         */
+        private void ret(int head) {
+            Frame<N> caller = frames.peek();
+            if (caller != null && !caller.isComponent()) {
+                caller.update(head);
+            }
+        }
+    }
+
+    /**
+     * Frame of a visit to a node, or of building the component
+     * headed by a node.
+     */
+    private static class Frame<N> {
+
+        private final N node;
+
+        private final Iterator<N> nexts;
+
+        /**
+         * The smallest depth-first number reached from the node;
+         * for a component frame, the value returned to its caller.
+         */
+        private int head;
+
+        private boolean loop = false;
+
+        /**
+         * Partition where the element of the node is placed.
+         */
+        private final Deque<Element<N>> partition;
+
+        /**
+         * Body of the component being built, or null for visit frames.
+         */
+        private Deque<Element<N>> body;
+
+        private Frame(N node, Iterator<N> nexts, int head,
+                      Deque<Element<N>> partition) {
+            this.node = node;
+            this.nexts = nexts;
+            this.head = head;
+            this.partition = partition;
+        }
+
+        private boolean isComponent() {
+            return body != null;
+        }
+
+        private void update(int min) {
+            if (min <= head) {
+                head = min;
+                loop = true;
+            }
+        }
+    }
+}
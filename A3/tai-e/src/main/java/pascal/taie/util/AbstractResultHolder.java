@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Base class of {@link ResultHolder}s.
+ * <p>
+ * The results are kept in a concurrent map, so that the analyses of
+ * different methods (and classes) can store and query the results
+ * of their holders from multiple threads at the same time.
+ */
+public abstract class AbstractResultHolder implements ResultHolder {
+
+    private final Map<String, Object> results = Maps.newConcurrentMap();
+
+    @Override
+    public <R> void storeResult(String key, R result) {
+        results.put(key, result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key) {
+        return (R) results.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, R defaultResult) {
+        return (R) results.getOrDefault(key, defaultResult);
+    }
+
+    /**
+     * The result is computed outside the map, as the supplier may query
+     * (or compute) other results of this holder, e.g., the CFG of an IR
+     * is built when computing the result of a data-flow analysis.
+     * If several threads compute the same result at the same time,
+     * all of them receive the one stored first.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R getResult(String key, Supplier<R> supplier) {
+        Object result = results.get(key);
+        if (result == null) {
+            result = supplier.get();
+            if (result != null) {
+                Object prev = results.putIfAbsent(key, result);
+                if (prev != null) {
+                    result = prev;
+                }
+            }
+        }
+        return (R) result;
+    }
+
+    @Override
+    public Collection<String> getKeys() {
+        return results.keySet();
+    }
+
+    @Override
+    public void clearResult(String key) {
+        results.remove(key);
+    }
+
+    @Override
+    public void clearAll() {
+        results.clear();
+    }
+}
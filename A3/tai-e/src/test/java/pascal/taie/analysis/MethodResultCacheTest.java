@@ -0,0 +1,265 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class MethodResultCacheTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private static final long MAX_SIZE = 1 << 20;
+
+    private static final long MAX_AGE = 30;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final LiveVariableAnalysis analysis = new LiveVariableAnalysis(
+            new AnalysisConfig(LiveVariableAnalysis.ID));
+
+    /**
+     * Number of the results computed by {@link #analyzer(IR)}.
+     */
+    private final AtomicInteger analyzed = new AtomicInteger();
+
+    /**
+     * Builds the IR:
+     * <pre>
+     *   0: x = c;
+     *   1: y = x + z;
+     *   2: return;
+     * </pre>
+     */
+    private static IR buildIR(int c) {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        Var z = new Var(null, "z", PrimitiveType.INT, 2);
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(x, IntLiteral.get(c)),
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, z)),
+                new Return());
+        return Tests.buildIR(List.of(x, y, z), stmts);
+    }
+
+    private MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> openCache(
+            long maxSize, long maxAge, long now) {
+        return new MethodResultCache<>(folder.getRoot().toPath(),
+                LiveVariableAnalysis.ID, analysis, "plan", maxSize, maxAge, now);
+    }
+
+    private MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> openCache() {
+        return openCache(MAX_SIZE, MAX_AGE, 0);
+    }
+
+    private Path getCacheFile() {
+        return folder.getRoot().toPath().resolve(LiveVariableAnalysis.ID + ".cache");
+    }
+
+    private Supplier<DataflowResult<Stmt, SetFact<Var>>> analyzer(IR ir) {
+        return () -> {
+            analyzed.incrementAndGet();
+            return analysis.analyze(ir);
+        };
+    }
+
+    /**
+     * Checks that the cache returns the result of the method of given IR
+     * and whether the result is computed (i.e., the cache misses).
+     */
+    private void assertGet(MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache,
+                           IR ir, boolean miss) {
+        int before = analyzed.get();
+        DataflowResult<Stmt, SetFact<Var>> result = cache.get(ir, analyzer(ir));
+        Assert.assertEquals("miss", miss, analyzed.get() > before);
+        Tests.assertSameResult(ir, analysis.analyze(ir), result);
+    }
+
+    void testDCDWithCache(String inputClass) {
+        String cacheDir = "cache-dir:" + folder.getRoot();
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;" + cacheDir,
+                "-a", "constprop=edge-refine:false;" + cacheDir);
+    }
+
+    /**
+     * Detects dead code twice with the same cache directory, where
+     * the results of the second run are read from the cache files
+     * written by the first run.
+     */
+    @Test
+    public void testDeadAssignmentInNextRun() {
+        testDCDWithCache("DeadAssignment");
+        Path root = folder.getRoot().toPath();
+        Assert.assertTrue(Files.exists(root.resolve(
+                LiveVariableAnalysis.ID + ".cache")));
+        Assert.assertTrue(Files.exists(root.resolve(
+                ConstantPropagation.ID + ".cache")));
+        testDCDWithCache("DeadAssignment");
+    }
+
+    @Test
+    public void testLoopsInNextRun() {
+        testDCDWithCache("Loops");
+        testDCDWithCache("Loops");
+    }
+
+    @Test
+    public void testHitInNextRun() {
+        IR ir = buildIR(1);
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, ir, true);
+        cache.flush();
+        assertGet(openCache(), ir, false);
+        // the IR of an unchanged method is hit as well
+        assertGet(openCache(), buildIR(1), false);
+    }
+
+    @Test
+    public void testChangedMethod() {
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, buildIR(1), true);
+        cache.flush();
+        cache = openCache();
+        assertGet(cache, buildIR(2), true);
+        assertGet(cache, buildIR(1), false);
+    }
+
+    @Test
+    public void testChangedPlan() {
+        IR ir = buildIR(1);
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, ir, true);
+        cache.flush();
+        assertGet(new MethodResultCache<>(folder.getRoot().toPath(),
+                LiveVariableAnalysis.ID, analysis, "another plan",
+                MAX_SIZE, MAX_AGE, 0), ir, true);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, buildIR(1), true);
+        assertGet(cache, buildIR(2), true);
+        cache.flush();
+        Path file = getCacheFile();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        cache = openCache();
+        // one of the entries is lost
+        int before = analyzed.get();
+        cache.get(buildIR(1), analyzer(buildIR(1)));
+        cache.get(buildIR(2), analyzer(buildIR(2)));
+        Assert.assertEquals(before + 1, analyzed.get());
+    }
+
+    @Test
+    public void testCorruptEntry() throws IOException {
+        IR ir = buildIR(1);
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, ir, true);
+        cache.flush();
+        Path file = getCacheFile();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(file, bytes);
+        cache = openCache();
+        assertGet(cache, ir, true);
+        // the corrupt entry is replaced
+        cache.flush();
+        assertGet(openCache(), ir, false);
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.writeString(getCacheFile(), "not a cache file");
+        IR ir = buildIR(1);
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, ir, true);
+        cache.flush();
+        assertGet(openCache(), ir, false);
+    }
+
+    @Test
+    public void testEvictionBySize() throws IOException {
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, buildIR(1), true);
+        cache.flush();
+        // the file has room for one entry, and the results
+        // of both methods take the same size
+        long size = Files.size(getCacheFile());
+        cache = openCache(size, MAX_AGE, DAY);
+        assertGet(cache, buildIR(2), true);
+        cache.flush();
+        Assert.assertEquals(size, Files.size(getCacheFile()));
+        // the least recently used entry is evicted
+        cache = openCache(MAX_SIZE, MAX_AGE, 2 * DAY);
+        assertGet(cache, buildIR(2), false);
+        assertGet(cache, buildIR(1), true);
+    }
+
+    @Test
+    public void testEvictionByAge() {
+        MethodResultCache<DataflowResult<Stmt, SetFact<Var>>> cache = openCache();
+        assertGet(cache, buildIR(1), true);
+        assertGet(cache, buildIR(2), true);
+        cache.flush();
+        cache = openCache(MAX_SIZE, 5, 4 * DAY);
+        assertGet(cache, buildIR(2), false);
+        cache.flush();
+        // entry of buildIR(1) is not used for 6 days, and is evicted
+        cache = openCache(MAX_SIZE, 5, 6 * DAY);
+        cache.flush();
+        cache = openCache(MAX_SIZE, 5, 6 * DAY);
+        assertGet(cache, buildIR(2), false);
+        assertGet(cache, buildIR(1), true);
+    }
+}
@@ -25,7 +25,14 @@ package pascal.taie.analysis;
 import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -61,6 +68,44 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        doTest(main, classPath, id, "", opts);
+    }
+
+    /**
+     * Builds the world of a specific test case, and the CFGs of the
+     * methods in the application classes, without running other analyses,
+     * so that the tests can run analyses on the IRs directly.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @return the IRs of the concrete methods in the application classes.
+     */
+    public static List<IR> buildIRs(String main, String classPath) {
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", main,
+                "-a", CFGBuilder.ID});
+        return World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+    }
+
+    /**
+     * Starts an analysis for a specific test case, and streams the methods
+     * through the analyses and the result processor.
+     *
+     * @param inFlight maximum number of methods in flight
+     * @see #test(String, String, String, String...)
+     */
+    public static void testStreaming(String main, String classPath, String id,
+                                     int inFlight, String... opts) {
+        doTest(main, classPath, id,
+                ";stream:true;in-flight:" + inFlight, opts);
+    }
+
+    private static void doTest(String main, String classPath, String id,
+                               String processOpts, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -83,8 +128,8 @@ public final class Tests {
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
         String file = getExpectedFile(classPath, main, id);
-        String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
-                ResultProcessor.ID, id, action, file);
+        String processArg = String.format("%s=analyses:[%s];action:%s;file:%s%s",
+                ResultProcessor.ID, id, action, file, processOpts);
         Collections.addAll(args, "-a", processArg);
         Main.main(args.toArray(new String[0]));
         if (action.equals("compare")) {
@@ -95,6 +140,37 @@ public final class Tests {
         }
     }
 
+    /**
+     * Asserts that two data-flow results have equal facts on given nodes.
+     */
+    public static <Fact> void assertSameResult(
+            Iterable<Stmt> nodes, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        for (Stmt node : nodes) {
+            Assert.assertEquals("IN fact of " + node,
+                    expected.getInFact(node), actual.getInFact(node));
+            Assert.assertEquals("OUT fact of " + node,
+                    expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    /**
+     * Builds the IR of a synthetic method which has given variables and
+     * stmts, and neither parameters nor exception entries. The indexes of
+     * the stmts are set to their positions in the list, and the CFG of
+     * the method (without exceptional edges) is stored in the IR.
+     */
+    public static IR buildIR(List<Var> vars, List<? extends Stmt> stmts) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(null, null, List.of(), Set.of(),
+                vars, List.copyOf(stmts), List.of());
+        ir.storeResult(CFGBuilder.ID, new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false)).analyze(ir));
+        return ir;
+    }
+
     public static void testPTA(String dir, String main, String... opts) {
         doTestPTA("pta", dir, main, opts);
     }
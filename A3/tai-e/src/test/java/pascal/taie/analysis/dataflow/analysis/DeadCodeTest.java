@@ -22,8 +22,32 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Assert;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DeadCodeTest {
 
@@ -34,6 +58,34 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    void testDCDWithSCCP(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "constprop:" + SparseConstantPropagation.ID,
+                "-a", "livevar=strongly:false");
+    }
+
+    void testDCDWithSolver(String inputClass, String solver) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;solver:" + solver,
+                "-a", "constprop=edge-refine:false;solver:" + solver);
+    }
+
+    void testDCDWithPrunedFacts(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false;prune-dead:true");
+    }
+
+    void testDCDStreaming(String inputClass, int inFlight) {
+        Tests.testStreaming(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, inFlight,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false");
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +110,123 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testUnreachableIfBranchWithSCCP() {
+        testDCDWithSCCP("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchWithSCCP() {
+        testDCDWithSCCP("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testLoopsWithSCCP() {
+        testDCDWithSCCP("Loops");
+    }
+
+    @Test
+    public void testDeadAssignmentWithBlockSolver() {
+        testDCDWithSolver("DeadAssignment", "block");
+    }
+
+    @Test
+    public void testLoopsWithBlockSolver() {
+        testDCDWithSolver("Loops", "block");
+    }
+
+    @Test
+    public void testDeadAssignmentWithWTOSolver() {
+        testDCDWithSolver("DeadAssignment", "wto");
+    }
+
+    @Test
+    public void testLoopsWithWTOSolver() {
+        testDCDWithSolver("Loops", "wto");
+    }
+
+    @Test
+    public void testDeadAssignmentWithPrunedFacts() {
+        testDCDWithPrunedFacts("DeadAssignment");
+    }
+
+    @Test
+    public void testDeadAssignmentStreaming() {
+        testDCDStreaming("DeadAssignment", 1);
+    }
+
+    @Test
+    public void testDeadAssignmentStreamingInParallel() {
+        testDCDStreaming("DeadAssignment", 4);
+    }
+
+    /**
+     * Detects dead code in a synthetic method with 100k statements, which
+     * consists of segments like:
+     * <pre>
+     *   i:     goto i + 2;
+     *   i + 1: nop;           // unreachable
+     *   i + 2: if (x < y) goto i + 3;
+     *   i + 3: nop;
+     * </pre>
+     * Instead of timing the detection, which is flaky on slow machines,
+     * this test counts the queries it makes on the CFG and on the result
+     * of constant propagation: a linear detection asks for the out edges
+     * of each node once, and evaluates each branch once.
+     */
+    @Test
+    public void testLongMethod() {
+        int segments = 25_000;
+        IR ir = buildLongMethod(segments);
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Map<String, Integer> cfgQueries = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        CFG<Stmt> countingCFG = (CFG<Stmt>) Proxy.newProxyInstance(
+                CFG.class.getClassLoader(), new Class<?>[]{ CFG.class },
+                (proxy, method, args) -> {
+                    cfgQueries.merge(method.getName(), 1, Integer::sum);
+                    return method.invoke(cfg, args);
+                });
+        ir.storeResult(CFGBuilder.ID, countingCFG);
+        int[] factQueries = { 0 };
+        DataflowResult<Stmt, CPFact> constants = new DataflowResult<>() {
+            @Override
+            public CPFact getInFact(Stmt stmt) {
+                ++factQueries[0];
+                // no constants are needed by these statements
+                return new CPFact();
+            }
+        };
+        ir.storeResult(ConstantPropagation.ID, constants);
+
+        Set<Stmt> result = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "constprop", ConstantPropagation.ID))
+                .analyze(ir);
+        Assert.assertEquals(segments, result.size());
+        result.forEach(stmt -> Assert.assertTrue(stmt.getIndex() % 4 == 1));
+        Assert.assertEquals(cfg.getNumberOfNodes(),
+                (int) cfgQueries.get("getOutEdgesOf"));
+        Assert.assertEquals(segments, factQueries[0]);
+    }
+
+    private static IR buildLongMethod(int segments) {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        List<Stmt> stmts = new ArrayList<>();
+        for (int i = 0; i < segments; ++i) {
+            Goto jump = new Goto();
+            Nop dead = new Nop();
+            If branch = new If(new ConditionExp(ConditionExp.Op.LT, x, y));
+            Nop nop = new Nop();
+            jump.setTarget(branch);
+            branch.setTarget(nop);
+            stmts.addAll(List.of(jump, dead, branch, nop));
+        }
+        stmts.add(new Return());
+        IR ir = Tests.buildIR(List.of(x, y), stmts);
+        // no live variables are needed by these statements
+        ir.storeResult(LiveVariableAnalysis.ID, new DataflowResult<>());
+        return ir;
+    }
 }
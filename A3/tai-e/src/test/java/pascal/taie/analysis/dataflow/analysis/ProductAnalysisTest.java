@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverProfile;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+
+public class ProductAnalysisTest {
+
+    /**
+     * Solves the product of two constant propagations on the methods of
+     * a test case, and checks that the result of each component equals
+     * the result of solving the component alone.
+     */
+    @Test
+    public void testProductOfConstantPropagations() {
+        List<IR> irs = Tests.buildIRs("DeadAssignment",
+                "src/test/resources/dataflow/deadcode/");
+        ConstantPropagation cp1 = newConstantPropagation("worklist");
+        ConstantPropagation cp2 = newConstantPropagation("wto");
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(List.of(cp1, cp2));
+        for (IR ir : irs) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, CPFact> expected =
+                    Solver.makeSolver(cp1).solve(cfg);
+            DataflowResult<Stmt, ProductFact> result =
+                    Solver.makeSolver(product).solve(cfg);
+            assertSameResult(ir, expected, ProductAnalysis.project(result, 0));
+            assertSameResult(ir, expected, ProductAnalysis.project(result, 1));
+        }
+    }
+
+    /**
+     * Solves the product of constant propagation and
+     * {@link DefinedVariables}, whose facts are of different types,
+     * on the method:
+     * <pre>
+     *   0: x = 1;
+     *   1: y = x + x;
+     *   2: return;
+     * </pre>
+     */
+    @Test
+    public void testProductOfDistinctAnalyses() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        AssignLiteral assign = new AssignLiteral(x, IntLiteral.get(1));
+        Binary add = new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x));
+        Return ret = new Return();
+        IR ir = Tests.buildIR(List.of(x, y), List.of(assign, add, ret));
+        ConstantPropagation cp = newConstantPropagation("worklist");
+        DefinedVariables dv = new DefinedVariables();
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(List.of(cp, dv));
+        // the results of the components are stored under their IDs
+        Assert.assertNull(product.analyze(ir));
+
+        DataflowResult<Stmt, CPFact> constants = ir.getResult(ConstantPropagation.ID);
+        Assert.assertEquals(1, constants.getOutFact(assign).get(x).getConstant());
+        Assert.assertEquals(2, constants.getOutFact(add).get(y).getConstant());
+        DataflowResult<Stmt, SetFact<Var>> defined = ir.getResult(DefinedVariables.ID);
+        Assert.assertEquals(new SetFact<>(List.of()), defined.getInFact(assign));
+        Assert.assertEquals(new SetFact<>(List.of(x)), defined.getOutFact(assign));
+        Assert.assertEquals(new SetFact<>(List.of(x, y)), defined.getOutFact(ret));
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> expected = Solver.makeSolver(dv).solve(cfg);
+        for (Stmt stmt : ir) {
+            Assert.assertEquals(expected.getInFact(stmt), defined.getInFact(stmt));
+            Assert.assertEquals(expected.getOutFact(stmt), defined.getOutFact(stmt));
+        }
+    }
+
+    /**
+     * The results of the components are stored under their IDs, thus
+     * the product refuses to store the results of the components with
+     * the same ID, instead of overwriting one with another.
+     */
+    @Test(expected = AnalysisException.class)
+    public void testDuplicateIds() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        IR ir = Tests.buildIR(List.of(x), List.of(
+                new AssignLiteral(x, IntLiteral.get(1)), new Return()));
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(List.of(
+                newConstantPropagation("worklist"),
+                newConstantPropagation("wto")));
+        product.analyze(ir);
+    }
+
+    /**
+     * Checks that the product honours option {@code profile} of its
+     * components, on the method:
+     * <pre>
+     *   0: x = 1;
+     *   1: y = x + x;
+     *   2: return;
+     * </pre>
+     */
+    @Test
+    public void testProfiledComponent() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        AssignLiteral assign = new AssignLiteral(x, IntLiteral.get(1));
+        Binary add = new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x));
+        IR ir = Tests.buildIR(List.of(x, y), List.of(assign, add, new Return()));
+        ConstantPropagation cp = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "solver", "worklist", "profile", true));
+        ProductAnalysis<Stmt> product = new ProductAnalysis<>(List.of(cp));
+        Assert.assertNull(product.analyze(ir));
+
+        DataflowResult<Stmt, CPFact> result = ir.getResult(ConstantPropagation.ID);
+        Assert.assertEquals(2, result.getOutFact(add).get(y).getConstant());
+        SolverProfile<Stmt> profile = ir.getResult(
+                SolverProfile.getKey(ConstantPropagation.ID));
+        Assert.assertEquals(ir.getStmts().size() + 2, profile.getNodes());
+        Assert.assertTrue(profile.getTransfers() >= ir.getStmts().size());
+        Assert.assertEquals("worklist", profile.getSolver());
+        Assert.assertTrue(profile.getFactSize() > 0);
+    }
+
+    private static ConstantPropagation newConstantPropagation(String solver) {
+        return new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "solver", solver));
+    }
+
+    private static void assertSameResult(
+            IR ir, DataflowResult<Stmt, CPFact> expected,
+            DataflowResult<Stmt, CPFact> actual) {
+        for (Stmt stmt : ir) {
+            Assert.assertEquals(expected.getInFact(stmt), actual.getInFact(stmt));
+            Assert.assertEquals(expected.getOutFact(stmt), actual.getOutFact(stmt));
+        }
+    }
+
+    /**
+     * Forward analysis of the variables which may have been defined
+     * before each stmt, whose facts are {@link SetFact}s of variables.
+     */
+    public static class DefinedVariables
+            extends AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+
+        public static final String ID = "defvar";
+
+        private DefinedVariables() {
+            super(new AnalysisConfig(ID, "solver", "worklist"));
+        }
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Var> newInitialFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
+            target.union(fact);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+            if (in == null || out == null) {
+                return false;
+            }
+            // the facts only grow, thus OUT is updated in place
+            boolean changed = out.union(in);
+            if (stmt.getDef().orElse(null) instanceof Var var) {
+                changed |= out.add(var);
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class StmtResultCodecTest {
+
+    @Test
+    public void testConstantPropagation() {
+        testRoundTrip(new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID)));
+    }
+
+    @Test
+    public void testLiveVariables() {
+        testRoundTrip(new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID)));
+    }
+
+    /**
+     * Encodes and decodes the results of given analysis on the methods of
+     * a test case, and checks that the decoded results equal the results.
+     */
+    private static <Fact, A extends AbstractDataflowAnalysis<Stmt, Fact> & StmtResultCodec<Fact>>
+    void testRoundTrip(A analysis) {
+        List<IR> irs = Tests.buildIRs("DeadAssignment",
+                "src/test/resources/dataflow/deadcode/");
+        Assert.assertFalse(irs.isEmpty());
+        for (IR ir : irs) {
+            DataflowResult<Stmt, Fact> result = analysis.analyze(ir);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                analysis.encode(ir, result, new DataOutputStream(bytes));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+            DataflowResult<Stmt, Fact> decoded = analysis.decode(ir, in);
+            Assert.assertFalse("unread bytes", in.hasRemaining());
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            for (Stmt node : cfg) {
+                Assert.assertEquals(result.getInFact(node), decoded.getInFact(node));
+                Assert.assertEquals(result.getOutFact(node), decoded.getOutFact(node));
+            }
+        }
+    }
+}
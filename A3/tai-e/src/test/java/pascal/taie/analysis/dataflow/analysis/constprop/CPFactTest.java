@@ -0,0 +1,104 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.List;
+import java.util.Map;
+
+public class CPFactTest {
+
+    /**
+     * Variables that do not belong to any method have no slots,
+     * thus they are kept in the backing map of the fact.
+     */
+    @Test
+    public void testVarsWithoutMethod() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        CPFact fact = new CPFact();
+        Assert.assertTrue(fact.update(x, Value.makeConstant(1)));
+        Assert.assertFalse(fact.update(x, Value.makeConstant(1)));
+        Assert.assertEquals(Value.makeConstant(1), fact.get(x));
+        Assert.assertEquals(Value.getUndef(), fact.get(y));
+
+        CPFact copy = fact.copy();
+        Assert.assertEquals(fact, copy);
+        Assert.assertEquals(fact.hashCode(), copy.hashCode());
+        Assert.assertTrue(copy.update(y, Value.getNAC()));
+        Assert.assertNotEquals(fact, copy);
+
+        CPFact other = new CPFact();
+        other.update(x, Value.makeConstant(2));
+        Assert.assertTrue(other.meet(copy));
+        Assert.assertEquals(Value.getNAC(), other.get(x));
+        Assert.assertEquals(Value.getNAC(), other.get(y));
+
+        CPFact out = new CPFact();
+        Assert.assertTrue(out.copyFrom(fact, y, Value.makeConstant(3)));
+        Assert.assertEquals(Map.of(x, Value.makeConstant(1), y, Value.makeConstant(3)),
+                Map.ofEntries(out.entries().toArray(Map.Entry[]::new)));
+
+        Assert.assertEquals(Value.makeConstant(1), fact.remove(x));
+        Assert.assertEquals(new CPFact(), fact);
+        out.clear();
+        Assert.assertEquals(new CPFact(), out);
+    }
+
+    /**
+     * A variable of another method has no slot in a bound fact,
+     * thus setting it moves the fact to the backing map.
+     */
+    @Test
+    public void testVarsOfOtherMethod() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        IR ir = Tests.buildIR(List.of(x),
+                List.of(new AssignLiteral(x, IntLiteral.get(1)), new Return()));
+        Var y = new Var(null, "y", PrimitiveType.INT, 0);
+        CPFact fact = new CPFact(IntVarSlots.of(ir));
+        Assert.assertTrue(fact.update(x, Value.makeConstant(1)));
+        CPFact copy = fact.copy();
+        Assert.assertTrue(fact.update(y, Value.getNAC()));
+        Assert.assertEquals(Value.makeConstant(1), fact.get(x));
+        Assert.assertEquals(Value.getNAC(), fact.get(y));
+        Assert.assertNotEquals(copy, fact);
+
+        CPFact other = new CPFact(IntVarSlots.of(ir));
+        Assert.assertTrue(other.copyFrom(fact));
+        Assert.assertEquals(fact, other);
+        Assert.assertEquals(fact.hashCode(), other.hashCode());
+        Assert.assertEquals(Value.getNAC(), fact.remove(y));
+        Assert.assertEquals(copy, fact);
+        Assert.assertEquals(copy.hashCode(), fact.hashCode());
+    }
+}
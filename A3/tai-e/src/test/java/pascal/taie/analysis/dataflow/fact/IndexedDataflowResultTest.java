@@ -0,0 +1,70 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+public class IndexedDataflowResultTest {
+
+    @Test
+    public void testFacts() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Stmt assign = new AssignLiteral(x, IntLiteral.get(1));
+        Stmt ret = new Return();
+        assign.setIndex(0);
+        ret.setIndex(5);
+        IndexedDataflowResult<Stmt, String> result = new IndexedDataflowResult<>(1);
+        result.setInFact(assign, "in");
+        result.setOutFact(ret, "out");
+        Assert.assertEquals("in", result.getInFact(assign));
+        Assert.assertNull(result.getOutFact(assign));
+        Assert.assertNull(result.getInFact(ret));
+        Assert.assertEquals("out", result.getOutFact(ret));
+    }
+
+    /**
+     * A stmt of another method whose index is in range
+     * does not belong to the result.
+     */
+    @Test
+    public void testNodeOfOtherMethod() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Stmt assign = new AssignLiteral(x, IntLiteral.get(1));
+        Stmt other = new AssignLiteral(x, IntLiteral.get(2));
+        assign.setIndex(0);
+        other.setIndex(0);
+        IndexedDataflowResult<Stmt, String> result = new IndexedDataflowResult<>(2);
+        result.setInFact(assign, "in");
+        result.setOutFact(assign, "out");
+        Assert.assertNull(result.getInFact(other));
+        Assert.assertNull(result.getOutFact(other));
+    }
+}
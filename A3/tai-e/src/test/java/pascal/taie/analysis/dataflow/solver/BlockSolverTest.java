@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlockSolverTest {
+
+    /**
+     * Builds a loop whose body is a chain of k stmts:
+     * <pre>
+     *   0:         v0 = 0;
+     *   1 .. k:    vi = v(i-1) + z;
+     *   k + 1:     if (vk < z) goto 1;
+     *   k + 2:     return;
+     * </pre>
+     */
+    private static IR buildIR(int k) {
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i <= k; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        Var z = new Var(null, "z", PrimitiveType.INT, k + 1);
+        vars.add(z);
+        List<Stmt> stmts = new ArrayList<>();
+        stmts.add(new AssignLiteral(vars.get(0), IntLiteral.get(0)));
+        for (int i = 1; i <= k; ++i) {
+            stmts.add(new Binary(vars.get(i), new ArithmeticExp(
+                    ArithmeticExp.Op.ADD, vars.get(i - 1), z)));
+        }
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, vars.get(k), z));
+        branch.setTarget(stmts.get(1));
+        stmts.add(branch);
+        stmts.add(new Return());
+        return Tests.buildIR(vars, stmts);
+    }
+
+    /**
+     * Builds a loop whose body is a block of assignments:
+     * <pre>
+     *   0: i = 0;
+     *   1: one = 1;
+     *   2: c = 5;
+     *   3: i = i + one;
+     *   4: d = c + one;
+     *   5: e = d + c;
+     *   6: if (i < e) goto 3;
+     *   7: return;
+     * </pre>
+     */
+    private static IR buildCounterIR() {
+        Var i = new Var(null, "i", PrimitiveType.INT, 0);
+        Var one = new Var(null, "one", PrimitiveType.INT, 1);
+        Var c = new Var(null, "c", PrimitiveType.INT, 2);
+        Var d = new Var(null, "d", PrimitiveType.INT, 3);
+        Var e = new Var(null, "e", PrimitiveType.INT, 4);
+        Binary inc = new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, one));
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, i, e));
+        branch.setTarget(inc);
+        List<Stmt> stmts = List.of(
+                new AssignLiteral(i, IntLiteral.get(0)),
+                new AssignLiteral(one, IntLiteral.get(1)),
+                new AssignLiteral(c, IntLiteral.get(5)),
+                inc,
+                new Binary(d, new ArithmeticExp(ArithmeticExp.Op.ADD, c, one)),
+                new Binary(e, new ArithmeticExp(ArithmeticExp.Op.ADD, d, c)),
+                branch,
+                new Return());
+        return Tests.buildIR(List.of(i, one, c, d, e), stmts);
+    }
+
+    /**
+     * Solves constant propagation by composed block transfers, which
+     * apply the assignments of each block on a single fact.
+     */
+    @Test
+    public void testComposedConstantPropagation() {
+        IR ir = buildCounterIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> result = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "solver", "block",
+                        "profile", true)).analyze(ir);
+        SolverProfile<Stmt> profile = ir.getResult(
+                SolverProfile.getKey(ConstantPropagation.ID));
+        // the 5 blocks are transferred once each, except the loop body,
+        // which is transferred 3 times until i becomes NAC
+        Assert.assertEquals(7, profile.getTransfers());
+        CPFact exit = result.getInFact(ir.getStmt(7));
+        Assert.assertEquals(Value.getNAC(), exit.get(ir.getVar(0)));
+        Assert.assertEquals(Value.makeConstant(6), exit.get(ir.getVar(3)));
+        Assert.assertEquals(Value.makeConstant(11), exit.get(ir.getVar(4)));
+        DataflowResult<Stmt, CPFact> expected = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "solver", "worklist"))
+                .analyze(ir);
+        Tests.assertSameResult(cfg, expected, result);
+    }
+
+    void testDCDWithBlockSolver(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;solver:block",
+                "-a", "constprop=edge-refine:false;solver:block");
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        testDCDWithBlockSolver("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        testDCDWithBlockSolver("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testDCDWithBlockSolver("UnreachableSwitchBranch");
+    }
+
+    /**
+     * Solves live variables by composed block transfers, and checks that
+     * the result equals the one of the work-list solver, while each block
+     * is transferred at once.
+     */
+    @Test
+    public void testComposedTransfers() {
+        int k = 50;
+        IR ir = buildIR(k);
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> result = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "solver", "block",
+                        "profile", true)).analyze(ir);
+        SolverProfile<Stmt> profile = ir.getResult(
+                SolverProfile.getKey(LiveVariableAnalysis.ID));
+        // the 5 blocks are transferred once each, except the loop body
+        // which is transferred twice, instead of k + 6 stmt transfers
+        Assert.assertEquals("block", profile.getSolver());
+        Assert.assertEquals(k + 5, profile.getNodes());
+        Assert.assertEquals(6, profile.getTransfers());
+        Assert.assertEquals(7, profile.getMeets());
+        // only the facts at block boundaries are kept and measured
+        Assert.assertEquals(8, profile.getFacts());
+        DataflowResult<Stmt, SetFact<Var>> expected = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "solver", "worklist"))
+                .analyze(ir);
+        Tests.assertSameResult(cfg, expected, result);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WorkListSolverTest {
+
+    /**
+     * Builds a loop which exits by a switch of many cases:
+     * <pre>
+     *   0:         x = 0;
+     *   1:         x = x + z;
+     *   2:         switch (x) { case i: goto i + 3; default: goto 1; }
+     *   3 .. k+2:  nop;
+     *   k + 3:     return;
+     * </pre>
+     * where 0 &lt;= i &lt; k.
+     */
+    private static IR buildIR(int cases) {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var z = new Var(null, "z", PrimitiveType.INT, 1);
+        Binary add = new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, x, z));
+        TableSwitch sw = new TableSwitch(x, 0, cases - 1);
+        List<Stmt> stmts = new ArrayList<>();
+        stmts.addAll(List.of(new AssignLiteral(x, IntLiteral.get(0)), add, sw));
+        for (int i = 0; i < cases; ++i) {
+            stmts.add(new Nop());
+        }
+        sw.setTargets(List.copyOf(stmts.subList(3, 3 + cases)));
+        sw.setDefaultTarget(add);
+        stmts.add(new Return());
+        return Tests.buildIR(List.of(x, z), stmts);
+    }
+
+    void testDCDWithProfile(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;solver:worklist;profile:true",
+                "-a", "constprop=edge-refine:false;solver:worklist;profile:true");
+    }
+
+    @Test
+    public void testControlFlowUnreachableWithProfile() {
+        testDCDWithProfile("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testLoopsWithProfile() {
+        testDCDWithProfile("Loops");
+    }
+
+    @Test
+    public void testSkipUnchangedMeets() {
+        int cases = 100;
+        IR ir = buildIR(cases);
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> result = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "solver", "worklist",
+                        "profile", true)).analyze(ir);
+        SolverProfile<Stmt> profile = ir.getResult(
+                SolverProfile.getKey(LiveVariableAnalysis.ID));
+        // the switch is visited twice, but only the fact of the loop header
+        // changes between the visits, so each of the 2 * cases + 5 edges
+        // is met once, plus the 2 edges into the loop header which are
+        // met again, instead of meeting all the cases again
+        Assert.assertEquals(2 * cases + 7, profile.getMeets());
+        Assert.assertEquals(cases + 6, profile.getNodes());
+        Assert.assertEquals(cases + 8, profile.getTransfers());
+        DataflowResult<Stmt, SetFact<Var>> expected = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "solver", "wto"))
+                .analyze(ir);
+        Tests.assertSameResult(cfg, expected, result);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.defuse;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class DefUseIndexTest {
+
+    /**
+     * Builds the index of the method:
+     * <pre>
+     *   0: x = 1;
+     *   1: if (x < y) goto 3;
+     *   2: x = 2;
+     *   3: y = x + x;
+     *   4: return;
+     * </pre>
+     */
+    @Test
+    public void testDefUseChains() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        AssignLiteral def1 = new AssignLiteral(x, IntLiteral.get(1));
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, x, y));
+        AssignLiteral def2 = new AssignLiteral(x, IntLiteral.get(2));
+        Binary add = new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x));
+        Return ret = new Return();
+        branch.setTarget(add);
+        List<Stmt> stmts = List.of(def1, branch, def2, add, ret);
+        IR ir = Tests.buildIR(List.of(x, y), stmts);
+        DefUseIndex defUse = DefUseIndex.of(ir);
+
+        Assert.assertSame(x, defUse.getDef(def1));
+        Assert.assertSame(y, defUse.getDef(add));
+        Assert.assertNull(defUse.getDef(branch));
+        Assert.assertArrayEquals(new int[]{0, 1}, defUse.getUseIndexes(branch));
+        Assert.assertArrayEquals(new int[]{0}, defUse.getUseIndexes(add));
+        Assert.assertArrayEquals(new int[]{0, 2}, defUse.getDefStmts(x));
+
+        Assert.assertArrayEquals(new int[]{0}, defUse.getReachingDefs(branch));
+        Assert.assertArrayEquals(new int[]{0, 2}, defUse.getReachingDefs(add));
+        Assert.assertArrayEquals(new int[]{}, defUse.getReachingDefs(ret));
+        Assert.assertArrayEquals(new int[]{1, 3}, defUse.getReachedUses(def1));
+        Assert.assertArrayEquals(new int[]{3}, defUse.getReachedUses(def2));
+        Assert.assertArrayEquals(new int[]{}, defUse.getReachedUses(add));
+    }
+
+    /**
+     * Builds the index of the method:
+     * <pre>
+     *   0: x = 0;
+     *   1: if (x < y) goto 5;
+     *   2: x = x + y;
+     *   3: goto 1;
+     *   4: x = 1;   (unreachable)
+     *   5: return x;
+     * </pre>
+     */
+    @Test
+    public void testLoopChains() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        AssignLiteral def1 = new AssignLiteral(x, IntLiteral.get(0));
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, x, y));
+        Binary add = new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y));
+        Goto back = new Goto();
+        AssignLiteral dead = new AssignLiteral(x, IntLiteral.get(1));
+        Return ret = new Return(x);
+        branch.setTarget(ret);
+        back.setTarget(branch);
+        List<Stmt> stmts = List.of(def1, branch, add, back, dead, ret);
+        IR ir = Tests.buildIR(List.of(x, y), stmts);
+        DefUseIndex defUse = DefUseIndex.of(ir);
+
+        Assert.assertArrayEquals(new int[]{0, 2}, defUse.getReachingDefs(branch));
+        Assert.assertArrayEquals(new int[]{0, 2}, defUse.getReachingDefs(add));
+        Assert.assertArrayEquals(new int[]{0, 2}, defUse.getReachingDefs(ret));
+        Assert.assertArrayEquals(new int[]{1, 2, 5}, defUse.getReachedUses(def1));
+        Assert.assertArrayEquals(new int[]{1, 2, 5}, defUse.getReachedUses(add));
+        Assert.assertArrayEquals(new int[]{}, defUse.getReachedUses(dead));
+    }
+
+    /**
+     * Checks the SSA renaming of the method of {@link #testLoopChains()},
+     * where a phi function of x is placed at the loop head.
+     */
+    @Test
+    public void testSSARenaming() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        AssignLiteral def1 = new AssignLiteral(x, IntLiteral.get(0));
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, x, y));
+        Binary add = new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y));
+        Goto back = new Goto();
+        AssignLiteral dead = new AssignLiteral(x, IntLiteral.get(1));
+        Return ret = new Return(x);
+        branch.setTarget(ret);
+        back.setTarget(branch);
+        List<Stmt> stmts = List.of(def1, branch, add, back, dead, ret);
+        IR ir = Tests.buildIR(List.of(x, y), stmts);
+        SSARenaming renaming = DefUseIndex.of(ir).getSSARenaming();
+
+        Assert.assertEquals(6, renaming.getNumberOfStmts());
+        Assert.assertEquals(1, renaming.getNumberOfPhis());
+        Assert.assertArrayEquals(new int[]{0}, renaming.getPhis(branch));
+        Assert.assertSame(branch, renaming.getPhiNode(0));
+        Assert.assertEquals(x.getIndex(), renaming.getPhiVar(0));
+        int[] operands = renaming.getOperands(0).clone();
+        Arrays.sort(operands);
+        Assert.assertArrayEquals(new int[]{0, 2}, operands);
+        Assert.assertArrayEquals(new int[]{6, -1}, renaming.getUseNames(add));
+        Assert.assertArrayEquals(new int[]{6}, renaming.getUseNames(ret));
+        Assert.assertNull(renaming.getUseNames(dead));
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+public class DominatorsTest {
+
+    /**
+     * Builds the CFG of the method:
+     * <pre>
+     *   0: i = 0;
+     *   1: if (n < i) goto 4;
+     *   2: i = i + n;
+     *   3: goto 1;
+     *   4: return;
+     * </pre>
+     */
+    private static CFG<Stmt> buildCFG() {
+        Var i = new Var(null, "i", PrimitiveType.INT, 0);
+        Var n = new Var(null, "n", PrimitiveType.INT, 1);
+        AssignLiteral init = new AssignLiteral(i, IntLiteral.get(0));
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, n, i));
+        Binary add = new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, n));
+        Goto back = new Goto();
+        Return ret = new Return();
+        branch.setTarget(ret);
+        back.setTarget(branch);
+        List<Stmt> stmts = List.of(init, branch, add, back, ret);
+        IR ir = Tests.buildIR(List.of(i, n), stmts);
+        return ir.getResult(CFGBuilder.ID);
+    }
+
+    @Test
+    public void testDominators() {
+        CFG<Stmt> cfg = buildCFG();
+        IR ir = cfg.getIR();
+        Dominators<Stmt> dom = Dominators.of(cfg);
+        Assert.assertSame(dom, Dominators.of(cfg));
+        Assert.assertEquals(cfg.getNumberOfNodes(), dom.size());
+        Assert.assertEquals(0, dom.getNumber(cfg.getEntry()));
+        Assert.assertNull(dom.getImmediateDominator(cfg.getEntry()));
+        Assert.assertSame(ir.getStmt(1), dom.getImmediateDominator(ir.getStmt(2)));
+        Assert.assertSame(ir.getStmt(1), dom.getImmediateDominator(ir.getStmt(4)));
+        Assert.assertSame(ir.getStmt(4), dom.getImmediateDominator(cfg.getExit()));
+        Assert.assertTrue(dom.dominates(ir.getStmt(1), ir.getStmt(3)));
+        Assert.assertTrue(dom.dominates(ir.getStmt(3), ir.getStmt(3)));
+        Assert.assertFalse(dom.dominates(ir.getStmt(3), ir.getStmt(4)));
+        Assert.assertEquals(List.of(ir.getStmt(1)),
+                dom.getDominanceFrontier(ir.getStmt(1)));
+        Assert.assertEquals(List.of(ir.getStmt(1)),
+                dom.getDominanceFrontier(ir.getStmt(3)));
+        Assert.assertEquals(List.of(), dom.getDominanceFrontier(ir.getStmt(0)));
+        // numbers preserve the reverse postorder of CFGNodeOrder
+        CFGNodeOrder<Stmt> order = CFGNodeOrder.of(cfg);
+        for (int k = 1; k < dom.size(); ++k) {
+            Assert.assertTrue(order.getReversePostorder(dom.getNode(k - 1))
+                    < order.getReversePostorder(dom.getNode(k)));
+        }
+        assertSameDominators(cfg, cfg.getEntry(), cfg::getPredsOf, dom);
+    }
+
+    @Test
+    public void testPostDominators() {
+        CFG<Stmt> cfg = buildCFG();
+        IR ir = cfg.getIR();
+        Dominators<Stmt> pdom = Dominators.postDominatorsOf(cfg);
+        Assert.assertTrue(pdom.isPostDominators());
+        Assert.assertNotSame(pdom, Dominators.of(cfg));
+        Assert.assertEquals(0, pdom.getNumber(cfg.getExit()));
+        Assert.assertSame(cfg.getExit(), pdom.getImmediateDominator(ir.getStmt(4)));
+        Assert.assertSame(ir.getStmt(1), pdom.getImmediateDominator(ir.getStmt(0)));
+        Assert.assertSame(ir.getStmt(1), pdom.getImmediateDominator(ir.getStmt(3)));
+        Assert.assertSame(ir.getStmt(3), pdom.getImmediateDominator(ir.getStmt(2)));
+        Assert.assertTrue(pdom.dominates(ir.getStmt(4), cfg.getEntry()));
+        Assert.assertEquals(List.of(ir.getStmt(1)),
+                pdom.getDominanceFrontier(ir.getStmt(2)));
+        assertSameDominators(cfg, cfg.getExit(), cfg::getSuccsOf, pdom);
+    }
+
+    /**
+     * Checks the dominators of the methods of the dead-code test cases
+     * against the ones computed by the naive iterative algorithm.
+     */
+    void testAgainstNaive(String inputClass) {
+        for (IR ir : Tests.buildIRs(inputClass,
+                "src/test/resources/dataflow/deadcode/")) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            assertSameDominators(cfg, cfg.getEntry(), cfg::getPredsOf,
+                    Dominators.of(cfg));
+            assertSameDominators(cfg, cfg.getExit(), cfg::getSuccsOf,
+                    Dominators.postDominatorsOf(cfg));
+        }
+    }
+
+    private static void assertSameDominators(
+            CFG<Stmt> cfg, Stmt root, Function<Stmt, Set<Stmt>> preds,
+            Dominators<Stmt> dom) {
+        Map<Stmt, Set<Stmt>> expected = computeNaiveDominators(
+                cfg, root, preds);
+        Assert.assertEquals(expected.size(), dom.size());
+        for (Stmt node : cfg) {
+            Set<Stmt> doms = expected.get(node);
+            Assert.assertEquals(doms != null, dom.getNumber(node) != -1);
+            if (doms == null) {
+                continue;
+            }
+            for (Stmt other : expected.keySet()) {
+                Assert.assertEquals(other + " dominates " + node,
+                        doms.contains(other), dom.dominates(other, node));
+            }
+            // the immediate dominator is the strict dominator
+            // which is dominated by all the other strict dominators
+            Stmt idom = dom.getImmediateDominator(node);
+            if (node == root) {
+                Assert.assertNull(idom);
+            } else {
+                Assert.assertTrue(doms.contains(idom) && idom != node);
+                Assert.assertTrue(doms.stream().allMatch(d -> d == node ||
+                        expected.get(idom).contains(d)));
+            }
+            // y is in the frontier of node iff node dominates
+            // a predecessor of y but does not strictly dominate y
+            Set<Stmt> frontier = new HashSet<>();
+            for (Stmt y : expected.keySet()) {
+                boolean dominatesPred = preds.apply(y).stream()
+                        .anyMatch(p -> expected.containsKey(p) &&
+                                expected.get(p).contains(node));
+                boolean strictlyDominates = y != node &&
+                        expected.get(y).contains(node);
+                if (dominatesPred && !strictlyDominates) {
+                    frontier.add(y);
+                }
+            }
+            Assert.assertEquals("frontier of " + node, frontier,
+                    Set.copyOf(dom.getDominanceFrontier(node)));
+        }
+    }
+
+    /**
+     * Computes the dominators of the nodes reachable from the root,
+     * by iterating dom(n) = {n} + the intersection of dom(p) for
+     * each predecessor p of n, until a fixed point is reached.
+     */
+    private static Map<Stmt, Set<Stmt>> computeNaiveDominators(
+            CFG<Stmt> cfg, Stmt root, Function<Stmt, Set<Stmt>> preds) {
+        Set<Stmt> reachable = new HashSet<>();
+        Deque<Stmt> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Stmt node = stack.pop();
+            if (reachable.add(node)) {
+                // successors in the direction of the dominators
+                cfg.forEach(s -> {
+                    if (preds.apply(s).contains(node)) {
+                        stack.push(s);
+                    }
+                });
+            }
+        }
+        Map<Stmt, Set<Stmt>> doms = new HashMap<>();
+        for (Stmt node : reachable) {
+            doms.put(node, node == root ? Set.of(root) : reachable);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Stmt node : reachable) {
+                if (node == root) {
+                    continue;
+                }
+                Set<Stmt> newDoms = new HashSet<>(reachable);
+                for (Stmt pred : preds.apply(node)) {
+                    if (reachable.contains(pred)) {
+                        newDoms.retainAll(doms.get(pred));
+                    }
+                }
+                newDoms.add(node);
+                if (!newDoms.equals(doms.get(node))) {
+                    doms.put(node, newDoms);
+                    changed = true;
+                }
+            }
+        }
+        return doms;
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        testAgainstNaive("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testLoops() {
+        testAgainstNaive("Loops");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testAgainstNaive("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testLoopForest() {
+        CFG<Stmt> cfg = buildCFG();
+        IR ir = cfg.getIR();
+        LoopForest<Stmt> loops = LoopForest.of(cfg);
+        Assert.assertEquals(List.of(ir.getStmt(1)), loops.getLoopHeaders());
+        Assert.assertTrue(loops.isLoopHeader(ir.getStmt(1)));
+        Assert.assertFalse(loops.isLoopHeader(ir.getStmt(2)));
+        Assert.assertSame(ir.getStmt(1), loops.getLoopHeader(ir.getStmt(3)));
+        Assert.assertNull(loops.getLoopHeader(ir.getStmt(4)));
+        Assert.assertNull(loops.getParentLoop(ir.getStmt(1)));
+        Assert.assertEquals(1, loops.getLoopDepth(ir.getStmt(2)));
+        Assert.assertEquals(0, loops.getLoopDepth(ir.getStmt(0)));
+        Assert.assertTrue(loops.contains(ir.getStmt(1), ir.getStmt(3)));
+        Assert.assertFalse(loops.contains(ir.getStmt(1), ir.getStmt(4)));
+    }
+}
@@ -91,22 +91,23 @@ public class InterConstantPropagation extends
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // - finish me
-        //return null;
-        CPFact fact = out.copy();
-        return fact;
+        // identity function; the solver only meets edge facts into
+        // IN facts, so OUT is returned without being copied
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // - finish me
-        //return null;
-        CPFact fact = out.copy();
+        // kills the variable defined by the call site, thus OUT is
+        // copied only if it contains that variable
         if(edge.getSource().getDef().isPresent()
-        && edge.getSource().getDef().get() instanceof Var v) {
+                && edge.getSource().getDef().get() instanceof Var v
+                && !out.get(v).isUndef()) {
+            CPFact fact = out.copy();
             fact.remove(v);
+            return fact;
         }
-        return fact;
+        return out;
     }
 
     @Override
@@ -29,6 +29,7 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
 import polyglot.ast.Call;
 
 import java.util.*;
@@ -40,9 +41,27 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    /**
+     * Caches the resolved targets of the call sites.
+     */
+    private final Map<ResolveKey, Set<JMethod>> resolved = Maps.newMap();
+
+    /**
+     * Caches the non-abstract subclasses of each class, and the non-abstract
+     * implementors of each interface, which are enumerated from the index
+     * of the class hierarchy and shared as unmodifiable sets by the
+     * resolution of different call sites.
+     */
+    private final Map<JClass, Set<JClass>> subclasses = Maps.newMap();
+
+    private final Map<JClass, Set<JClass>> implementors = Maps.newMap();
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
+        resolved.clear();
+        subclasses.clear();
+        implementors.clear();
         return buildCallGraph(World.get().getMainMethod());
     }
 
@@ -76,16 +95,27 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     /**
      * Resolves call targets (callees) of a call site via CHA.
+     * The call sites with the same declaring class, subsignature and
+     * call kind (e.g., the calls to toString() or List.add()) have the same
+     * targets, thus the targets are resolved once and shared among them.
      */
     private Set<JMethod> resolve(Invoke callSite) {
-        //  - finish me
-        //return null;
-        Set<JMethod> targetMethods = new HashSet<>();
-
-        Subsignature subsignature = callSite.getMethodRef().getSubsignature();
-        JClass declaredClass = callSite.getMethodRef().getDeclaringClass();
+        MethodRef methodRef = callSite.getMethodRef();
+        ResolveKey key = new ResolveKey(methodRef.getDeclaringClass(),
+                methodRef.getSubsignature(), CallGraphs.getCallKind(callSite));
+        Set<JMethod> targetMethods = resolved.get(key);
+        if (targetMethods == null) {
+            targetMethods = resolve(key);
+            resolved.put(key, targetMethods);
+        }
+        return targetMethods;
+    }
 
-        CallKind callKind = CallGraphs.getCallKind(callSite);
+    private Set<JMethod> resolve(ResolveKey key) {
+        Set<JMethod> targetMethods = new HashSet<>();
+        JClass declaredClass = key.declaringClass();
+        Subsignature subsignature = key.subsignature();
+        CallKind callKind = key.callKind();
         if(callKind == CallKind.STATIC || callKind == CallKind.SPECIAL) {
             targetMethods.add(dispatch(declaredClass, subsignature) );
         }
@@ -95,16 +125,7 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             }
         }
         else if(callKind == CallKind.INTERFACE) {
-            Set<JClass> allSubInterfaces = getAllSubInterfaces(declaredClass); // interfaces can be inherited
-            Set<JClass> allImplementations = new HashSet<>();
-            for(JClass subInterface : allSubInterfaces) {
-                allImplementations.addAll(hierarchy.getDirectImplementorsOf(subInterface) );
-            }
-            Set<JClass> allSubclasses = new HashSet<>();
-            for(JClass c : allImplementations) {
-                allSubclasses.addAll(getAllSubclasses(c) );
-            }
-            for(JClass c : allSubclasses) {
+            for(JClass c : getAllImplementors(declaredClass)) {
                 targetMethods.add(dispatch(c, subsignature) );
             }
         }
@@ -112,28 +133,44 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             // do nothing
         }
 
-        return targetMethods;
+        return Collections.unmodifiableSet(targetMethods);
     }
 
-    private Set<JClass> getAllSubInterfaces(JClass topInterface) {
-        Set<JClass> result = new HashSet<>();
-        result.add(topInterface);
-        for(JClass subInterface : hierarchy.getDirectSubinterfacesOf(topInterface) ) {
-            result.addAll(getAllSubInterfaces(subInterface) );
+    /**
+     * @return the given class and all its subclasses, except the abstract ones.
+     */
+    private Set<JClass> getAllSubclasses(JClass topClass) {
+        Set<JClass> result = subclasses.get(topClass);
+        if (result == null) {
+            result = nonAbstract(hierarchy.getAllSubclassesOf(topClass));
+            subclasses.put(topClass, result);
         }
         return result;
     }
-    private Set<JClass> getAllSubclasses(JClass topClass) {
-        Set<JClass> result = new HashSet<>();
-        if(!topClass.isAbstract() ) { // abstract classes have no bodies
-            result.add(topClass);
-        }
-        for(JClass subclass : hierarchy.getDirectSubclassesOf(topClass) ) {
-            result.addAll(getAllSubclasses(subclass) );
+
+    /**
+     * @return the non-abstract classes that implement the given interface
+     * or any of its subinterfaces, directly or via their superclasses.
+     */
+    private Set<JClass> getAllImplementors(JClass topInterface) {
+        Set<JClass> result = implementors.get(topInterface);
+        if (result == null) {
+            result = nonAbstract(hierarchy.getAllImplementorsOf(topInterface));
+            implementors.put(topInterface, result);
         }
         return result;
     }
 
+    private static Set<JClass> nonAbstract(Collection<JClass> classes) {
+        Set<JClass> result = new HashSet<>();
+        for(JClass c : classes) {
+            if(!c.isAbstract() ) { // abstract classes have no bodies
+                result.add(c);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
     /**
      * Looks up the target method based on given class and method subsignature.
      *
@@ -151,4 +188,11 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         }
         // return null;
     }
+
+    /**
+     * Uses as keys to identify the resolved targets in cache.
+     */
+    private record ResolveKey(JClass declaringClass, Subsignature subsignature,
+                              CallKind callKind) {
+    }
 }
@@ -75,6 +75,25 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if subclass is superclass, or a direct or indirect
+     * subclass (or implementor, or subinterface) of superclass.
+     * This check takes constant time for classes and implementors.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * @return given class and all its direct and indirect subclasses,
+     * or an empty collection if given class is an interface.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
+    /**
+     * @return all classes which implement given interface, directly,
+     * via their superclasses, or via the subinterfaces.
+     */
+    Collection<JClass> getAllImplementorsOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -65,6 +65,12 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Index for subclass checks and enumeration, built on demand
+     * and discarded when a class is added.
+     */
+    private volatile ClassHierarchyIndex index;
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +103,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        index = null;
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +167,34 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        return getIndex().isSubclass(superclass, subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        return getIndex().getAllSubclassesOf(jclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllImplementorsOf(JClass jclass) {
+        return getIndex().getAllImplementorsOf(jclass);
+    }
+
+    private ClassHierarchyIndex getIndex() {
+        ClassHierarchyIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = index = new ClassHierarchyIndex(this);
+                }
+            }
+        }
+        return result;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -0,0 +1,225 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newHybridSet;
+
+/**
+ * Index of a class hierarchy for constant-time subclass checks.
+ * <p>
+ * The (non-interface) classes form a forest by their superclasses, which
+ * is numbered in preorder of the depth-first search, so that the subclasses
+ * of each class (including itself) occupy a contiguous range of numbers,
+ * from its own number to the largest number in its subtree. The classes
+ * are kept in a flat array sorted by their numbers, thus all subclasses
+ * of a class can be enumerated as a range of the array.
+ * <p>
+ * Each interface has a bit set over the numbers of the classes which
+ * implement it, directly, via their superclasses, or via subinterfaces.
+ * As a class implements all interfaces implemented by its superclass,
+ * the bits of an implementor are set for its whole subtree at once.
+ * <p>
+ * The index is a snapshot of the hierarchy, which should be rebuilt
+ * when new classes are added to the hierarchy. All of its contents are
+ * computed in the constructor and never modified afterwards, so that
+ * a published index can be read by multiple threads without locking.
+ */
+final class ClassHierarchyIndex {
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Map from each class to its preorder number.
+     */
+    private final Map<JClass, Integer> numbers = newMap();
+
+    /**
+     * The classes sorted by their numbers.
+     */
+    private final List<JClass> classes = new ArrayList<>();
+
+    /**
+     * The largest number in the subtree of each class.
+     */
+    private int[] lastDescendant = new int[64];
+
+    /**
+     * Map from each interface in the hierarchy to its superinterfaces
+     * (including itself).
+     */
+    private final Map<JClass, Set<JClass>> superinterfaces = newMap();
+
+    /**
+     * Map from each interface to the numbers of its implementors.
+     */
+    private final Map<JClass, BitSet> implementors = newMap();
+
+    ClassHierarchyIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        hierarchy.allClasses().forEach(c -> {
+            if (!c.isInterface() && !numbers.containsKey(c)) {
+                JClass root = c;
+                while (root.getSuperClass() != null) {
+                    root = root.getSuperClass();
+                }
+                if (!numbers.containsKey(root)) {
+                    number(root);
+                }
+            }
+        });
+        lastDescendant = Arrays.copyOf(lastDescendant, classes.size());
+        hierarchy.allClasses()
+                .filter(JClass::isInterface)
+                .forEach(this::computeSuperinterfaces);
+        for (JClass c : classes) {
+            int number = numbers.get(c);
+            for (JClass iface : c.getInterfaces()) {
+                for (JClass superinterface : computeSuperinterfaces(iface)) {
+                    implementors.computeIfAbsent(superinterface, i -> new BitSet())
+                            .set(number, lastDescendant[number] + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Numbers the classes in the subtree of given class in preorder.
+     */
+    private void number(JClass jclass) {
+        int number = classes.size();
+        numbers.put(jclass, number);
+        classes.add(jclass);
+        for (JClass subclass : hierarchy.getDirectSubclassesOf(jclass)) {
+            number(subclass);
+        }
+        if (number >= lastDescendant.length) {
+            lastDescendant = Arrays.copyOf(lastDescendant,
+                    Math.max(number + 1, lastDescendant.length * 2));
+        }
+        lastDescendant[number] = classes.size() - 1;
+    }
+
+    /**
+     * Computes and records the superinterfaces of given interface.
+     * This method is only called by the constructor.
+     */
+    private Set<JClass> computeSuperinterfaces(JClass iface) {
+        Set<JClass> result = superinterfaces.get(iface);
+        if (result == null) {
+            Set<JClass> closure = newHybridSet();
+            closure.add(iface);
+            for (JClass superinterface : iface.getInterfaces()) {
+                closure.addAll(computeSuperinterfaces(superinterface));
+            }
+            result = Collections.unmodifiableSet(closure);
+            superinterfaces.put(iface, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if iface is superinterface or one of its subinterfaces,
+     * otherwise false.
+     */
+    private boolean isSubinterface(JClass superinterface, JClass iface) {
+        Set<JClass> closure = superinterfaces.get(iface);
+        if (closure != null) {
+            return closure.contains(superinterface);
+        }
+        // iface is not in the snapshot, walk up its superinterfaces
+        if (iface == superinterface) {
+            return true;
+        }
+        for (JClass i : iface.getInterfaces()) {
+            if (isSubinterface(superinterface, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if subclass is superclass, or a subclass (or an
+     * implementor, or a subinterface) of superclass, otherwise false.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        if (superclass.isInterface()) {
+            if (subclass.isInterface()) {
+                return isSubinterface(superclass, subclass);
+            }
+            BitSet bits = implementors.get(superclass);
+            Integer number = numbers.get(subclass);
+            return bits != null && number != null && bits.get(number);
+        }
+        if (subclass.isInterface()) {
+            // interfaces are subclasses of java.lang.Object only
+            return superclass.getName().equals(ClassNames.OBJECT);
+        }
+        Integer superNumber = numbers.get(superclass);
+        Integer subNumber = numbers.get(subclass);
+        return superNumber != null && subNumber != null &&
+                superNumber <= subNumber && subNumber <= lastDescendant[superNumber];
+    }
+
+    /**
+     * @return given class and all its direct and indirect subclasses,
+     * in preorder.
+     */
+    List<JClass> getAllSubclassesOf(JClass jclass) {
+        Integer number = numbers.get(jclass);
+        if (number == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(
+                classes.subList(number, lastDescendant[number] + 1));
+    }
+
+    /**
+     * @return the classes which implement given interface, directly,
+     * via their superclasses, or via subinterfaces, in preorder.
+     */
+    List<JClass> getAllImplementorsOf(JClass iface) {
+        BitSet bits = implementors.get(iface);
+        if (bits == null) {
+            return List.of();
+        }
+        List<JClass> result = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(classes.get(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph.cha;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the subclass queries of {@link ClassHierarchy} against
+ * a walk over the direct subclasses, subinterfaces and implementors.
+ */
+public class ClassHierarchyTest {
+
+    private static ClassHierarchy hierarchy;
+
+    @BeforeClass
+    public static void buildHierarchy() {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", "Interface", "-a", "cg=algorithm:cha"});
+        hierarchy = World.get().getClassHierarchy();
+    }
+
+    /**
+     * @return given type and all types which are below it
+     * in the hierarchy, by walking the direct edges.
+     */
+    private static Set<JClass> walkSubtypes(JClass type) {
+        Set<JClass> result = new HashSet<>();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(type);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (result.add(c)) {
+                if (c.isInterface()) {
+                    workList.addAll(hierarchy.getDirectSubinterfacesOf(c));
+                    workList.addAll(hierarchy.getDirectImplementorsOf(c));
+                } else {
+                    workList.addAll(hierarchy.getDirectSubclassesOf(c));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static JClass getClass(String name) {
+        JClass c = hierarchy.getClass(name);
+        Assert.assertNotNull(name, c);
+        return c;
+    }
+
+    @Test
+    public void testAllSubclassesOf() {
+        hierarchy.allClasses().forEach(c -> {
+            Set<JClass> subclasses = Set.copyOf(hierarchy.getAllSubclassesOf(c));
+            Assert.assertEquals(c.toString(),
+                    hierarchy.getAllSubclassesOf(c).size(), subclasses.size());
+            if (c.isInterface()) {
+                Assert.assertTrue(c.toString(), subclasses.isEmpty());
+            } else {
+                Assert.assertEquals(c.toString(), walkSubtypes(c), subclasses);
+            }
+        });
+    }
+
+    @Test
+    public void testAllImplementorsOf() {
+        hierarchy.allClasses().filter(JClass::isInterface).forEach(i -> {
+            Set<JClass> implementors = Set.copyOf(hierarchy.getAllImplementorsOf(i));
+            Assert.assertEquals(i.toString(),
+                    hierarchy.getAllImplementorsOf(i).size(), implementors.size());
+            Set<JClass> expected = walkSubtypes(i)
+                    .stream()
+                    .filter(c -> !c.isInterface())
+                    .collect(Collectors.toSet());
+            Assert.assertEquals(i.toString(), expected, implementors);
+        });
+    }
+
+    @Test
+    public void testIsSubclass() {
+        // the types of the test input and all their supertypes,
+        // plus interfaces with subinterfaces and their implementors
+        Set<JClass> supertypes = new HashSet<>();
+        Deque<JClass> workList = new ArrayDeque<>();
+        hierarchy.applicationClasses().forEach(workList::add);
+        List.of("java.util.Collection", "java.util.List", "java.util.Set",
+                "java.util.SortedSet", "java.util.AbstractList",
+                "java.lang.Iterable", "java.lang.Number")
+                .forEach(name -> workList.add(getClass(name)));
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    workList.add(c.getSuperClass());
+                }
+                workList.addAll(c.getInterfaces());
+            }
+        }
+        JClass object = getClass(ClassNames.OBJECT);
+        Assert.assertTrue(supertypes.contains(object));
+        for (JClass superclass : supertypes) {
+            Set<JClass> subtypes = walkSubtypes(superclass);
+            hierarchy.allClasses().forEach(subclass -> {
+                boolean expected = subtypes.contains(subclass) ||
+                        (superclass == object && subclass.isInterface());
+                Assert.assertEquals(superclass + " <- " + subclass,
+                        expected, hierarchy.isSubclass(superclass, subclass));
+            });
+        }
+    }
+}
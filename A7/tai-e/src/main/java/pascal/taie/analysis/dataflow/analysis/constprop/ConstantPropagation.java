@@ -82,9 +82,7 @@ public class ConstantPropagation extends
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // done - finish me
-        fact.forEach((v, val) -> {
-            target.update(v, meetValue(val, target.get(v)));
-        } );
+        target.meet(fact);
     }
 
     /**
@@ -122,9 +120,10 @@ public class ConstantPropagation extends
         if(stmt instanceof DefinitionStmt d
         && d.getLValue() instanceof Var v
         && canHoldInt(v) ) {
-            CPFact newOut = in.copy();
-            newOut.update(v, evaluate( d.getRValue(), in) );
-            return out.copyFrom(newOut);
+            // only v may differ between IN and OUT, so OUT is updated
+            // in place instead of transferring a copy of IN
+            Value value = evaluate(d.getRValue(), in);
+            return out.copyFrom(in, v, value);
         }
 
         return out.copyFrom(in); // DO NOT RETURN FALSE HERE, OR YOU WOULD BLOCK THE PROPAGATION!
@@ -143,7 +143,6 @@ public class InterConstantPropagation extends
     }
 
     private boolean transferLoadFieldNode(LoadField stmt, CPFact in, CPFact out) {
-        CPFact newOut = in.copy();
         Var def = stmt.getLValue();
         JField fieldLoad = stmt.getFieldRef().resolve();
         Value meetResult = Value.getUndef();
@@ -175,12 +174,10 @@ public class InterConstantPropagation extends
                 }
             }
         }
-        newOut.update(def, meetResult);
-        return out.copyFrom(newOut);
+        return out.copyFrom(in, def, meetResult);
     }
 
     private boolean transferLoadArrayNode(LoadArray stmt, CPFact in, CPFact out) {
-        CPFact newOut = in.copy();
         Var def = stmt.getLValue();
         // Value defValue = in.get(def); This is NOT necessary as the constant propagation is FLOW-SENSITIVE
         Collection<?> aliasSet = aliasMap.get(stmt.getArrayAccess().getBase() );
@@ -210,28 +207,28 @@ public class InterConstantPropagation extends
 
         //defValue = cp.meetValue(defValue, meetResult);
         //newOut.update(def, defValue);
-        newOut.update(def, meetResult);
-        return out.copyFrom(newOut);
+        return out.copyFrom(in, def, meetResult);
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // - finish me
-        //return null;
-        CPFact fact = out.copy();
-        return fact;
+        // identity function; the solver only meets edge facts into
+        // IN facts, so OUT is returned without being copied
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // - finish me
-        //return null;
-        CPFact fact = out.copy();
+        // kills the variable defined by the call site, thus OUT is
+        // copied only if it contains that variable
         if(edge.getSource().getDef().isPresent()
-                && edge.getSource().getDef().get() instanceof Var v) {
+                && edge.getSource().getDef().get() instanceof Var v
+                && !out.get(v).isUndef()) {
+            CPFact fact = out.copy();
             fact.remove(v);
+            return fact;
         }
-        return fact;
+        return out;
     }
 
     @Override